@@ -4,6 +4,14 @@ import com.mojang.brigadier.CommandDispatcher;
 import net.ShockFox05.ClientBlockerSF.compat.CompatRegistry;
 import net.ShockFox05.ClientBlockerSF.compat.ExceptionHandler;
 import net.ShockFox05.ClientBlockerSF.compat.ModInitHandler;
+import net.ShockFox05.ClientBlockerSF.metrics.BootProfiler;
+import net.ShockFox05.ClientBlockerSF.metrics.OperationStats;
+import net.ShockFox05.ClientBlockerSF.metrics.PrometheusExporter;
+import net.ShockFox05.ClientBlockerSF.metrics.StubCallTelemetry;
+import net.ShockFox05.ClientBlockerSF.metrics.TickBudget;
+import net.ShockFox05.ClientBlockerSF.scan.ClientOnlyModDetector;
+import net.ShockFox05.ClientBlockerSF.scan.ModScanSummary;
+import net.ShockFox05.ClientBlockerSF.scan.ScanDataStubRegistrar;
 import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
 import net.ShockFox05.ClientBlockerSF.test.TestClientBlocker;
 import net.minecraft.commands.CommandSourceStack;
@@ -20,9 +28,13 @@ import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.config.ModConfig;
 import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.fml.loading.FMLEnvironment;
+import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.neoforge.common.NeoForge;
 import net.neoforged.neoforge.event.server.ServerStartingEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import net.ShockFox05.ClientBlockerSF.stub.StubClassRegistry;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassTransformer;
 import net.ShockFox05.ClientBlockerSF.stub.StubClassTransformerHook;
 
 import java.io.IOException;
@@ -55,10 +67,12 @@ public class ClientBlockerSF {
         NeoForge.EVENT_BUS.addListener(CommandRegistrationHandler::registerCommands);
     }
 
-    public ClientBlockerSF(IEventBus modEventBus) {
+    public ClientBlockerSF(IEventBus modEventBus, ModContainer modContainer) {
+        BootProfiler.Phase phase = BootProfiler.begin("constructor");
         LOGGER.info("[{}] Initializing...", MOD_ID);
 
         // Register config
+        modContainer.registerConfig(ModConfig.Type.COMMON, Config.SPEC);
         modEventBus.register(Config.class);
         modEventBus.addListener(this::onConfigLoad);
 
@@ -75,12 +89,31 @@ public class ClientBlockerSF {
 
             // Initialize compatibility registry
             ExceptionHandler.execute(() -> CompatRegistry.init(), "initializing compatibility registry");
+
+            // Read the annotation and class data FML already scanned once, for the scan data stubs and client-only mods
+            ExceptionHandler.execute(() -> {
+                List<ModScanSummary> summaries = ModScanSummary.summarize(ModList.get().getModFiles());
+                ScanDataStubRegistrar.register(summaries);
+                ClientOnlyModDetector.setLastDetected(ClientOnlyModDetector.detect(summaries));
+            }, "reading mod scan data");
         }
 
         // Invoke client-specific setup (this call is a no-op on a dedicated server).
         CLIENT_FEATURE.performClientSetup();
 
         LOGGER.info("[{}] Initialized successfully!", MOD_ID);
+        BootProfiler.end(phase);
+    }
+
+    /**
+     * Get the folder in the game directory that holds this mod's generated reports.
+     *
+     * @return The output directory, created if necessary
+     */
+    public static Path getOutputDirectory() throws IOException {
+        Path directory = FMLPaths.GAMEDIR.get().resolve(MOD_ID);
+        Files.createDirectories(directory);
+        return directory;
     }
 
     private void onConfigLoad(final ModConfigEvent.Loading event) {
@@ -91,6 +124,7 @@ public class ClientBlockerSF {
 
     @SubscribeEvent
     public void onServerStarting(ServerStartingEvent event) {
+        BootProfiler.Phase phase = BootProfiler.begin("server starting");
         if (FMLEnvironment.dist.isDedicatedServer()) {
             LOGGER.info("[{}] Running on dedicated server. Scanning for client-only classes...", MOD_ID);
 
@@ -123,6 +157,10 @@ public class ClientBlockerSF {
                     MOD_ID, clientOnlyClasses.size());
             LOGGER.info("[{}] Currently loaded {} stub classes, {} failed.",
                     MOD_ID, StubClassRegistry.getLoadedStubCount(), StubClassRegistry.getFailedStubCount());
+            for (String line : OperationStats.getSummary()) {
+                LOGGER.info("[{}] {}", MOD_ID, line);
+            }
+            LOGGER.info("[{}] {}", MOD_ID, StubClassTransformer.getMemorySummary());
 
             // Apply compatibility fixes for known problematic mods
             LOGGER.info("[{}] Applying compatibility fixes for known problematic mods...", MOD_ID);
@@ -136,8 +174,53 @@ public class ClientBlockerSF {
             // Run test to verify stub class system
             TestClientBlocker.runTest();
         }
+        BootProfiler.end(phase);
+
+        // Start the metrics endpoint on its own executor
+        if (FMLEnvironment.dist.isDedicatedServer() && PrometheusExporter.isEnabled()) {
+            ExceptionHandler.execute(() -> {
+                try {
+                    PrometheusExporter.start(PrometheusExporter.getConfiguredPort());
+                } catch (IOException e) {
+                    LOGGER.warn("[{}] Failed to start metrics endpoint: {}", MOD_ID, e.getMessage());
+                }
+            }, "starting metrics endpoint");
+        }
+
+        // Report the hottest stub methods periodically
+        if (FMLEnvironment.dist.isDedicatedServer() && StubCallTelemetry.isEnabled()) {
+            ExceptionHandler.execute(() -> StubCallTelemetry.startReporting(StubCallTelemetry.getConfiguredReportInterval()),
+                    "starting stub call telemetry");
+        }
+
+        // Persist the boot timeline so startup regressions show up in the next boot's diff
+        if (FMLEnvironment.dist.isDedicatedServer()) {
+            ExceptionHandler.execute(() -> {
+                try {
+                    LOGGER.info("[{}] Boot timeline written to {}", MOD_ID, BootProfiler.writeReport());
+                } catch (IOException e) {
+                    LOGGER.warn("[{}] Failed to write boot timeline: {}", MOD_ID, e.getMessage());
+                }
+            }, "writing boot timeline");
+        }
+    }
+
+
+    @SubscribeEvent
+    public void onServerTickPre(ServerTickEvent.Pre event) {
+        TickBudget.startTick();
     }
 
+    @SubscribeEvent
+    public void onServerTickPost(ServerTickEvent.Post event) {
+        TickBudget.endTick();
+    }
+
+    @SubscribeEvent
+    public void onServerStopping(ServerStoppingEvent event) {
+        PrometheusExporter.stop();
+        StubCallTelemetry.stopReporting();
+    }
 
     static {
         NeoForge.EVENT_BUS.addListener(CommandRegistrationHandler::registerCommands);
@@ -228,6 +311,37 @@ public class ClientBlockerSF {
                                 return 1;
                             })
             );
+
+            // Operator-only command to show latency statistics for stub and patch operations
+            dispatcher.register(
+                    Commands.literal("clientblocker")
+                            .requires(source -> source.hasPermission(2))
+                            .then(Commands.literal("stats")
+                                    .executes(context -> {
+                                        CommandSourceStack source = context.getSource();
+                                        source.sendSuccess(() -> Component.literal("Stub and patch operation latencies:"), false);
+                                        for (String line : OperationStats.getSummary()) {
+                                            source.sendSuccess(() -> Component.literal(" - " + line), false);
+                                        }
+                                        source.sendSuccess(() -> Component.literal(StubClassTransformer.getMemorySummary()), false);
+                                        return 1;
+                                    })
+                                    .then(Commands.literal("reset")
+                                            .executes(context -> {
+                                                OperationStats.reset();
+                                                context.getSource().sendSuccess(() -> Component.literal("Operation statistics reset."), true);
+                                                return 1;
+                                            })
+                                    )
+                            )
+                            .then(Commands.literal("sweep")
+                                    .executes(context -> {
+                                        String summary = StubClassTransformerHook.sweepUnusedStubs();
+                                        context.getSource().sendSuccess(() -> Component.literal(summary), true);
+                                        return 1;
+                                    })
+                            )
+            );
         }
 
         private static List<String> sendModList(CommandSourceStack source) {
@@ -1,10 +1,14 @@
 package net.ShockFox05.ClientBlockerSF;
 
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassTransformerHook;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.neoforge.common.ModConfigSpec;
 
+import java.util.List;
+
 @EventBusSubscriber(modid = ClientBlockerSF.MOD_ID, bus = EventBusSubscriber.Bus.MOD)
 public class Config {
     private static final ModConfigSpec.Builder BUILDER = new ModConfigSpec.Builder();
@@ -14,8 +18,19 @@ public class Config {
     public static final ModConfigSpec.BooleanValue LOG_STUB_LOADING;
     public static final ModConfigSpec.BooleanValue LOG_EXCEPTIONS;
     public static final ModConfigSpec.BooleanValue LOG_EXCEPTION_STACK_TRACES;
+    public static final ModConfigSpec.IntValue TICK_BUDGET_MICROS;
     public static final ModConfigSpec.BooleanValue ENABLE_COMPATIBILITY_FIXES;
     public static final ModConfigSpec.BooleanValue LOG_LOADED_STUBS;
+    public static final ModConfigSpec.BooleanValue SCAN_MOD_JARS;
+    public static final ModConfigSpec.BooleanValue PREWARM_STUBS;
+    public static final ModConfigSpec.BooleanValue PREWARM_DEFINE_CLASSES;
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> STUB_MAPPINGS;
+    public static final ModConfigSpec.ConfigValue<List<? extends String>> CLIENT_PACKAGES;
+    public static final ModConfigSpec.BooleanValue ENABLE_METRICS_ENDPOINT;
+    public static final ModConfigSpec.IntValue METRICS_PORT;
+    public static final ModConfigSpec.BooleanValue STUB_CALL_TELEMETRY;
+    public static final ModConfigSpec.IntValue STUB_CALL_SAMPLE_RATE;
+    public static final ModConfigSpec.IntValue STUB_CALL_REPORT_INTERVAL;
 
     static {
         BUILDER.comment("Client Blocker SF Configuration");
@@ -32,6 +47,27 @@ public class Config {
         LOG_LOADED_STUBS = BUILDER
                 .comment("Log all loaded stubs when the server starts")
                 .define("logLoadedStubs", false);
+
+        SCAN_MOD_JARS = BUILDER
+                .comment("Scan mod jars for client class references during common setup and prepare their stubs in advance (slows startup)")
+                .define("scanModJars", false);
+
+        PREWARM_STUBS = BUILDER
+                .comment("Prepare stubs on background threads during setup instead of on first use")
+                .define("prewarmStubs", false);
+
+        PREWARM_DEFINE_CLASSES = BUILDER
+                .comment("Also define the pre-warmed stubs that scanned mods are known to reference (requires prewarmStubs)")
+                .define("prewarmDefineClasses", false);
+
+        STUB_MAPPINGS = BUILDER
+                .comment("Extra client classes to stub, as <client class>=<stub>, where <stub> is ScreenStub, KeyMappingStub,",
+                        "BufferBuilderStub, ModelRendererStub, RenderSystemStub, ResourceLocationStub or Object (applied on reload)")
+                .defineListAllowEmpty("stubMappings", List.of(), () -> "", entry -> entry instanceof String value && value.contains("="));
+
+        CLIENT_PACKAGES = BUILDER
+                .comment("Extra package prefixes whose classes are treated as client-only (applied on reload)")
+                .defineListAllowEmpty("clientPackages", List.of(), () -> "", entry -> entry instanceof String value && !value.isBlank());
         BUILDER.pop();
 
         BUILDER.push("compatibility");
@@ -48,6 +84,32 @@ public class Config {
         LOG_EXCEPTION_STACK_TRACES = BUILDER
                 .comment("Log stack traces for caught exceptions (can be verbose)")
                 .define("logExceptionStackTraces", false);
+
+        TICK_BUDGET_MICROS = BUILDER
+                .comment("Microseconds per server tick that exception handling and stub work may take before logging detail is reduced (0 to disable)")
+                .defineInRange("tickBudgetMicros", 2000, 0, 1_000_000);
+        BUILDER.pop();
+
+        BUILDER.push("metrics");
+        ENABLE_METRICS_ENDPOINT = BUILDER
+                .comment("Serve metrics in Prometheus text format on http://127.0.0.1:<metricsPort>/metrics")
+                .define("enableMetricsEndpoint", false);
+
+        METRICS_PORT = BUILDER
+                .comment("Port of the localhost-only metrics endpoint (0 binds a free port, which is logged at startup)")
+                .defineInRange("metricsPort", 9464, 0, 65535);
+
+        STUB_CALL_TELEMETRY = BUILDER
+                .comment("Count calls into stub methods and sample which mods make them (only affects stubs generated while enabled)")
+                .define("stubCallTelemetry", false);
+
+        STUB_CALL_SAMPLE_RATE = BUILDER
+                .comment("Attribute one in this many stub calls to the calling mod")
+                .defineInRange("stubCallSampleRate", 64, 1, 65536);
+
+        STUB_CALL_REPORT_INTERVAL = BUILDER
+                .comment("Seconds between reports of the hottest stub methods")
+                .defineInRange("stubCallReportIntervalSeconds", 300, 10, 86400);
         BUILDER.pop();
     }
 
@@ -55,11 +117,16 @@ public class Config {
 
     @SubscribeEvent
     public static void onConfigReload(ModConfigEvent.Loading event) {
-        // Config has been loaded, update any runtime values if needed
+        // Config has been loaded, add the configured stub mappings
+        StubClassMapping.applyConfig();
+        StubClassTransformerHook.onConfigLoaded();
     }
 
     @SubscribeEvent
     public static void onConfigReload(ModConfigEvent.Reloading event) {
-        // Config has been reloaded, update any runtime values if needed
+        // Config has been reloaded, swap in the new stub mappings; a fresh stub generation is only started
+        // if the reload changed how stubs are generated
+        boolean mappingsChanged = StubClassMapping.applyConfig();
+        StubClassTransformerHook.onConfigReloaded(mappingsChanged);
     }
 }
@@ -0,0 +1,158 @@
+package net.ShockFox05.ClientBlockerSF.compat;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Cached access to classes, fields and methods of other mods for compatibility fixes.
+ * Each lookup is resolved once, including private members, into a {@link VarHandle} or {@link MethodHandle} that
+ * is cached by owner and name. Lookups that fail are cached too, so a fix probing for a mod that is not installed
+ * pays for the failed reflection only once. Every method returns null if the target cannot be resolved.
+ * Classes are always resolved through this mod's own class loader, which sees every mod on the game layer, so a
+ * cached result does not depend on the context class loader of the thread that happened to look it up first.
+ */
+public class CompatAccessors {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Map<String, Optional<Class<?>>> CLASSES = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<VarHandle>> FIELDS = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<MethodHandle>> METHODS = new ConcurrentHashMap<>();
+    private static final LongAdder FAILED_LOOKUPS = new LongAdder();
+
+    /**
+     * Find a class without initializing it.
+     *
+     * @param className The fully qualified name of the class
+     * @return The class, or null if it does not exist
+     */
+    public static Class<?> findClass(String className) {
+        Optional<Class<?>> cached = CLASSES.get(className);
+        if (cached == null) {
+            // Resolved outside of the map, since loading the class may run other lookups
+            cached = Optional.ofNullable(resolveClass(className));
+            CLASSES.putIfAbsent(className, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    /**
+     * Find a field, declared on the class or one of its superclasses, with any access modifier.
+     * Static fields are accessed without a receiver, instance fields with the object as first coordinate.
+     *
+     * @param owner The fully qualified name of the class
+     * @param name The name of the field
+     * @return A handle to the field, or null if it cannot be resolved
+     */
+    public static VarHandle findField(String owner, String name) {
+        String key = owner + '#' + name;
+        Optional<VarHandle> cached = FIELDS.get(key);
+        if (cached == null) {
+            cached = Optional.ofNullable(resolveField(key, owner, name));
+            FIELDS.putIfAbsent(key, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    /**
+     * Find a method, declared on the class or one of its superclasses, with any access modifier.
+     * Instance methods take the receiver as first argument.
+     *
+     * @param owner The fully qualified name of the class
+     * @param name The name of the method
+     * @param parameterTypes The parameter types of the method
+     * @return A handle to the method, or null if it cannot be resolved
+     */
+    public static MethodHandle findMethod(String owner, String name, Class<?>... parameterTypes) {
+        String key = owner + '#' + name + Arrays.stream(parameterTypes).map(Class::getName)
+                .collect(Collectors.joining(",", "(", ")"));
+        Optional<MethodHandle> cached = METHODS.get(key);
+        if (cached == null) {
+            cached = Optional.ofNullable(resolveMethod(key, owner, name, parameterTypes));
+            METHODS.putIfAbsent(key, cached);
+        }
+        return cached.orElse(null);
+    }
+
+    private static Class<?> resolveClass(String className) {
+        try {
+            return Class.forName(className, false, CompatAccessors.class.getClassLoader());
+        } catch (ClassNotFoundException | LinkageError e) {
+            onFailure(className, e);
+            return null;
+        }
+    }
+
+    private static VarHandle resolveField(String key, String owner, String name) {
+        Class<?> ownerClass = findClass(owner);
+        if (ownerClass == null) {
+            return null;
+        }
+
+        try {
+            for (Class<?> type = ownerClass; type != null; type = type.getSuperclass()) {
+                for (Field field : type.getDeclaredFields()) {
+                    if (field.getName().equals(name)) {
+                        return lookupIn(type).unreflectVarHandle(field);
+                    }
+                }
+            }
+            onFailure(key, new NoSuchFieldException(name));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            onFailure(key, e);
+        }
+        return null;
+    }
+
+    private static MethodHandle resolveMethod(String key, String owner, String name, Class<?>[] parameterTypes) {
+        Class<?> ownerClass = findClass(owner);
+        if (ownerClass == null) {
+            return null;
+        }
+
+        try {
+            for (Class<?> type = ownerClass; type != null; type = type.getSuperclass()) {
+                for (Method method : type.getDeclaredMethods()) {
+                    if (method.getName().equals(name) && Arrays.equals(method.getParameterTypes(), parameterTypes)) {
+                        return lookupIn(type).unreflect(method);
+                    }
+                }
+            }
+            onFailure(key, new NoSuchMethodException(name));
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            onFailure(key, e);
+        }
+        return null;
+    }
+
+    /**
+     * Get a lookup with private access to a class.
+     */
+    private static MethodHandles.Lookup lookupIn(Class<?> type) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(type, MethodHandles.lookup());
+    }
+
+    private static void onFailure(String key, Throwable reason) {
+        FAILED_LOOKUPS.increment();
+        LOGGER.debug("[{}] Compat accessor {} could not be resolved and will not be looked up again: {}",
+                ClientBlockerSF.MOD_ID, key, reason.toString());
+    }
+
+    /**
+     * Get the number of lookups that failed. Each failure is only looked up once.
+     */
+    public static long getFailedLookups() {
+        return FAILED_LOOKUPS.sum();
+    }
+}
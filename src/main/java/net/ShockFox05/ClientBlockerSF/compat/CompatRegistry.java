@@ -1,13 +1,16 @@
 package net.ShockFox05.ClientBlockerSF.compat;
 
 import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.metrics.CompatFixEvent;
+import net.ShockFox05.ClientBlockerSF.metrics.OperationStats;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
@@ -16,8 +19,11 @@ import java.util.function.Supplier;
  */
 public class CompatRegistry {
     private static final Logger LOGGER = LogUtils.getLogger();
-    private static final Map<String, List<CompatFix>> MOD_FIXES = new HashMap<>();
-    private static final Map<String, List<CompatPatch>> CLASS_PATCHES = new HashMap<>();
+    // Registered from parallel mod construction and read by class-loading threads, so both tables are concurrent
+    private static final Map<String, List<CompatFix>> MOD_FIXES = new ConcurrentHashMap<>();
+    private static final Map<String, List<CompatPatch>> CLASS_PATCHES = new ConcurrentHashMap<>();
+    private static final LongAdder FIXES_APPLIED = new LongAdder();
+    private static final LongAdder PATCHES_APPLIED = new LongAdder();
     
     /**
      * Register a compatibility fix for a specific mod.
@@ -27,7 +33,7 @@ public class CompatRegistry {
      * @param fix The fix to apply
      */
     public static void registerFix(String modId, String description, Runnable fix) {
-        MOD_FIXES.computeIfAbsent(modId, k -> new ArrayList<>())
+        MOD_FIXES.computeIfAbsent(modId, k -> new CopyOnWriteArrayList<>())
                 .add(new CompatFix(description, fix));
         LOGGER.info("[{}] Registered compatibility fix for mod {}: {}", 
                 ClientBlockerSF.MOD_ID, modId, description);
@@ -41,12 +47,23 @@ public class CompatRegistry {
      * @param patch The patch to apply
      */
     public static void registerPatch(String className, String description, ClassPatch patch) {
-        CLASS_PATCHES.computeIfAbsent(className, k -> new ArrayList<>())
+        CLASS_PATCHES.computeIfAbsent(className, k -> new CopyOnWriteArrayList<>())
                 .add(new CompatPatch(description, patch));
         LOGGER.info("[{}] Registered patch for class {}: {}", 
                 ClientBlockerSF.MOD_ID, className, description);
     }
     
+    /**
+     * Check if any patches are registered for a class.
+     *
+     * @param className The fully qualified name of the class
+     * @return true if the class has patches
+     */
+    public static boolean hasPatches(String className) {
+        List<CompatPatch> patches = CLASS_PATCHES.get(className);
+        return patches != null && !patches.isEmpty();
+    }
+
     /**
      * Apply all fixes for a specific mod.
      * 
@@ -54,6 +71,21 @@ public class CompatRegistry {
      * @return true if any fixes were applied
      */
     public static boolean applyFixes(String modId) {
+        CompatFixEvent event = new CompatFixEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = "failed";
+        try {
+            boolean applied = applyFixesInternal(modId);
+            outcome = applied ? "applied" : "none";
+            return applied;
+        } finally {
+            OperationStats.record(OperationStats.Operation.APPLY_FIXES, start);
+            event.complete(null, modId, outcome);
+        }
+    }
+
+    private static boolean applyFixesInternal(String modId) {
         List<CompatFix> fixes = MOD_FIXES.get(modId);
         if (fixes == null || fixes.isEmpty()) {
             return false;
@@ -66,6 +98,7 @@ public class CompatRegistry {
                         ClientBlockerSF.MOD_ID, modId, fix.description);
                 fix.fix.run();
                 anyApplied = true;
+                FIXES_APPLIED.increment();
             } catch (Throwable t) {
                 LOGGER.error("[{}] Failed to apply fix for mod {}: {}", 
                         ClientBlockerSF.MOD_ID, modId, fix.description, t);
@@ -83,6 +116,15 @@ public class CompatRegistry {
      * @return The patched bytecode, or the original if no patches were applied
      */
     public static byte[] applyPatches(String className, byte[] classBytes) {
+        long start = System.nanoTime();
+        try {
+            return applyPatchesInternal(className, classBytes);
+        } finally {
+            OperationStats.record(OperationStats.Operation.APPLY_PATCHES, start);
+        }
+    }
+
+    private static byte[] applyPatchesInternal(String className, byte[] classBytes) {
         List<CompatPatch> patches = CLASS_PATCHES.get(className);
         if (patches == null || patches.isEmpty()) {
             return classBytes;
@@ -94,6 +136,7 @@ public class CompatRegistry {
                 LOGGER.info("[{}] Applying patch for class {}: {}", 
                         ClientBlockerSF.MOD_ID, className, patch.description);
                 result = patch.patch.apply(className, result);
+                PATCHES_APPLIED.increment();
             } catch (Throwable t) {
                 LOGGER.error("[{}] Failed to apply patch for class {}: {}", 
                         ClientBlockerSF.MOD_ID, className, patch.description, t);
@@ -103,6 +146,24 @@ public class CompatRegistry {
         return result;
     }
     
+    /**
+     * Get the number of fixes that have been applied successfully.
+     *
+     * @return The number of applied fixes
+     */
+    public static long getFixesApplied() {
+        return FIXES_APPLIED.sum();
+    }
+
+    /**
+     * Get the number of class patches that have been applied successfully.
+     *
+     * @return The number of applied patches
+     */
+    public static long getPatchesApplied() {
+        return PATCHES_APPLIED.sum();
+    }
+
     /**
      * Initialize the compatibility registry with known fixes and patches.
      */
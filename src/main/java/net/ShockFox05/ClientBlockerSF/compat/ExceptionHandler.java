@@ -2,11 +2,18 @@ package net.ShockFox05.ClientBlockerSF.compat;
 
 import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
 import net.ShockFox05.ClientBlockerSF.Config;
+import net.ShockFox05.ClientBlockerSF.metrics.ExceptionHandledEvent;
+import net.ShockFox05.ClientBlockerSF.metrics.OperationStats;
+import net.ShockFox05.ClientBlockerSF.metrics.TickBudget;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 /**
@@ -16,6 +23,8 @@ import java.util.function.Supplier;
 public class ExceptionHandler {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final Map<Class<? extends Throwable>, ExceptionHandler> HANDLERS = new HashMap<>();
+    private static final Map<String, LongAdder> SUPPRESSED_COUNTS = new ConcurrentHashMap<>();
+    private static final Map<String, Optional<ExceptionHandler>> RESOLVED_HANDLERS = new ConcurrentHashMap<>();
 
     private final String exceptionName;
     private final String description;
@@ -48,6 +57,7 @@ public class ExceptionHandler {
      */
     public static <T extends Throwable> void register(Class<T> exceptionClass, String name, String description, boolean suppress) {
         HANDLERS.put(exceptionClass, new ExceptionHandler(name, description, suppress));
+        RESOLVED_HANDLERS.clear();
     }
 
     /**
@@ -92,6 +102,25 @@ public class ExceptionHandler {
      * @return true if the exception was handled and execution should continue
      */
     public static boolean handleException(Throwable t, String context, Object defaultValue) {
+        ExceptionHandledEvent event = new ExceptionHandledEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = "failed";
+        try {
+            boolean suppressed = handleExceptionInternal(t, context, defaultValue);
+            outcome = suppressed ? "suppressed" : "propagated";
+            return suppressed;
+        } finally {
+            OperationStats.record(OperationStats.Operation.HANDLE_EXCEPTION, start);
+            if (event.shouldCommit()) {
+                event.exceptionType = t.getClass().getName();
+                event.context = context;
+            }
+            event.complete(null, null, outcome);
+        }
+    }
+
+    private static boolean handleExceptionInternal(Throwable t, String context, Object defaultValue) {
         // Find the root cause
         Throwable rootCause = t;
         while (rootCause.getCause() != null && rootCause.getCause() != rootCause) {
@@ -101,51 +130,76 @@ public class ExceptionHandler {
         // Find a handler for this exception type
         ExceptionHandler handler = findHandler(rootCause.getClass());
 
-        // Log the exception
+        boolean logExceptions = true;
+        boolean logStackTraces = false;
         try {
-            boolean logExceptions = true;
-            boolean logStackTraces = false;
+            // Try to get config values, but don't crash if they're not loaded yet
+            logExceptions = Config.LOG_EXCEPTIONS.get();
+            logStackTraces = Config.LOG_EXCEPTION_STACK_TRACES.get();
+        } catch (Exception e) {
+            // Config not loaded yet, use defaults
+            LOGGER.debug("[{}] Config not loaded yet, using default logging settings", ClientBlockerSF.MOD_ID);
+        }
 
+        // Log the exception, with less detail while over the tick budget; lines disabled in the config are
+        // never counted as skipped by the budget
+        if (logExceptions && TickBudget.allows(TickBudget.DetailLevel.REDUCED)) {
             try {
-                // Try to get config values, but don't crash if they're not loaded yet
-                logExceptions = Config.LOG_EXCEPTIONS.get();
-                logStackTraces = Config.LOG_EXCEPTION_STACK_TRACES.get();
-            } catch (IllegalStateException e) {
-                // Config not loaded yet, use defaults
-                LOGGER.debug("[{}] Config not loaded yet, using default logging settings", ClientBlockerSF.MOD_ID);
-            }
-
-            if (logExceptions) {
                 if (handler != null) {
                     LOGGER.warn("[{}] {} during {}: {} - {}",
                             ClientBlockerSF.MOD_ID, handler.exceptionName, context, rootCause.getMessage(), handler.description);
 
-                    if (logStackTraces) {
+                    if (logStackTraces && TickBudget.allows(TickBudget.DetailLevel.FULL)) {
                         LOGGER.debug("Stack trace:", rootCause);
                     }
-                } else {
+                } else if (TickBudget.getDetailLevel() == TickBudget.DetailLevel.FULL) {
                     LOGGER.error("[{}] Unhandled exception during {}: {}",
                             ClientBlockerSF.MOD_ID, context, rootCause.getMessage(), rootCause);
+                } else {
+                    LOGGER.error("[{}] Unhandled exception during {}: {}",
+                            ClientBlockerSF.MOD_ID, context, rootCause.toString());
                 }
 
-                if (defaultValue != null) {
+                if (defaultValue != null && TickBudget.allows(TickBudget.DetailLevel.FULL)) {
                     LOGGER.info("[{}] Using default value: {}", ClientBlockerSF.MOD_ID, defaultValue);
                 }
+            } catch (Exception e) {
+                // Fallback if anything goes wrong with logging
+                LOGGER.error("[{}] Error while handling exception: {}", ClientBlockerSF.MOD_ID, e.getMessage());
+                LOGGER.error("[{}] Original exception: {}", ClientBlockerSF.MOD_ID, rootCause.getMessage());
             }
-        } catch (Exception e) {
-            // Fallback if anything goes wrong with logging
-            LOGGER.error("[{}] Error while handling exception: {}", ClientBlockerSF.MOD_ID, e.getMessage());
-            LOGGER.error("[{}] Original exception: {}", ClientBlockerSF.MOD_ID, rootCause.getMessage());
         }
 
         // Determine if we should suppress this exception
-        return handler != null && handler.shouldSuppress;
+        if (handler != null && handler.shouldSuppress) {
+            SUPPRESSED_COUNTS.computeIfAbsent(handler.exceptionName, k -> new LongAdder()).increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Get how many exceptions have been suppressed, by handler exception name.
+     *
+     * @return A sorted snapshot of the suppressed exception counts
+     */
+    public static Map<String, Long> getSuppressedCounts() {
+        Map<String, Long> result = new TreeMap<>();
+        SUPPRESSED_COUNTS.forEach((name, count) -> result.put(name, count.sum()));
+        return result;
     }
 
     /**
      * Find a handler for the given exception type or its superclasses.
      */
     private static ExceptionHandler findHandler(Class<? extends Throwable> exceptionClass) {
+        // The same few exception types repeat, so remember the handler found for each.
+        // Keyed by name so the cache doesn't keep mod exception classes or their class loaders alive
+        return RESOLVED_HANDLERS.computeIfAbsent(exceptionClass.getName(),
+                name -> Optional.ofNullable(resolveHandler(exceptionClass))).orElse(null);
+    }
+
+    private static ExceptionHandler resolveHandler(Class<? extends Throwable> exceptionClass) {
         // Check for an exact match
         ExceptionHandler handler = HANDLERS.get(exceptionClass);
         if (handler != null) {
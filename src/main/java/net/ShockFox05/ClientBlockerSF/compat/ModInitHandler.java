@@ -1,16 +1,24 @@
 package net.ShockFox05.ClientBlockerSF.compat;
 
 import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.metrics.BootProfiler;
+import net.ShockFox05.ClientBlockerSF.scan.ClientOnlyModDetector;
+import net.ShockFox05.ClientBlockerSF.scan.ClientReferenceScanner;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassTransformer;
+import net.ShockFox05.ClientBlockerSF.stub.StubPrewarmer;
 import net.neoforged.bus.api.EventPriority;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.fml.event.lifecycle.FMLLoadCompleteEvent;
+import net.neoforged.fml.loading.FMLEnvironment;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
+import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -19,6 +27,7 @@ import java.util.Set;
 public class ModInitHandler {
     private static final Logger LOGGER = LogUtils.getLogger();
     private static final Set<String> PROBLEMATIC_MODS = new HashSet<>();
+    private static final long PREWARM_TIMEOUT_MS = 30_000;
 
     static {
         // Known problematic mods that might need special handling
@@ -33,6 +42,7 @@ public class ModInitHandler {
      */
     @SubscribeEvent(priority = EventPriority.HIGHEST)
     public void onEarlyInit(FMLCommonSetupEvent event) {
+        BootProfiler.Phase phase = BootProfiler.begin("common setup");
         LOGGER.info("[{}] Applying early compatibility fixes", ClientBlockerSF.MOD_ID);
 
         // Initialize the compatibility registry
@@ -46,6 +56,70 @@ public class ModInitHandler {
 
         // Install our exception handlers
         installExceptionHandlers();
+
+        // Report mods that have nothing to do on a server
+        if (FMLEnvironment.dist.isDedicatedServer()) {
+            ExceptionHandler.execute(this::reportClientOnlyMods, "reporting client-only mods");
+        }
+
+        // Find client class references in mod jars before any mod touches them
+        if (FMLEnvironment.dist.isDedicatedServer() && ClientReferenceScanner.isEnabled()) {
+            ExceptionHandler.execute(this::scanModJars, "scanning mod jars for client class references");
+        }
+
+        // Generate the remaining stubs in the background while the other mods finish setting up
+        if (FMLEnvironment.dist.isDedicatedServer() && StubPrewarmer.isEnabled()) {
+            ExceptionHandler.execute(StubPrewarmer::start, "starting stub pre-warming");
+        }
+        BootProfiler.end(phase);
+    }
+
+    /**
+     * Log the client-only mods detected at construction, whether FML still constructs them, and write the report.
+     */
+    private void reportClientOnlyMods() {
+        List<ClientOnlyModDetector.ClientOnlyMod> mods = ClientOnlyModDetector.getLastDetected();
+        if (mods.isEmpty()) {
+            return;
+        }
+
+        for (ClientOnlyModDetector.ClientOnlyMod mod : mods) {
+            for (ClientOnlyModDetector.EntryPoint entryPoint : mod.getEntryPoints()) {
+                LOGGER.warn("[{}] Mod {} ({}) is client-only: {} ({}), {}", ClientBlockerSF.MOD_ID, mod.getModIds(),
+                        mod.getFileName(), entryPoint.getClassName(), entryPoint.getReason(),
+                        ClientOnlyModDetector.describeConstruction(entryPoint));
+            }
+        }
+
+        try {
+            LOGGER.info("[{}] {} client-only mods found, report written to {}", ClientBlockerSF.MOD_ID, mods.size(),
+                    ClientOnlyModDetector.writeReport(mods));
+        } catch (IOException e) {
+            LOGGER.warn("[{}] Failed to write client-only mod report: {}", ClientBlockerSF.MOD_ID, e.getMessage());
+        }
+    }
+
+    /**
+     * Scan all mod jars for client class references, write the report and warm the predicted stubs.
+     */
+    private void scanModJars() {
+        List<ClientReferenceScanner.ModReport> reports = ClientReferenceScanner.scanLoadedMods();
+        for (ClientReferenceScanner.ModReport report : reports) {
+            if (report.hasClientReferences()) {
+                LOGGER.info("[{}] Mod {} ({}) references {} client classes",
+                        ClientBlockerSF.MOD_ID, report.getModIds(), report.getFileName(), report.getClientReferences().size());
+            }
+        }
+
+        try {
+            LOGGER.info("[{}] Client reference report written to {}", ClientBlockerSF.MOD_ID, ClientReferenceScanner.writeReport());
+        } catch (IOException e) {
+            LOGGER.warn("[{}] Failed to write client reference report: {}", ClientBlockerSF.MOD_ID, e.getMessage());
+        }
+
+        Set<String> referenced = ClientReferenceScanner.getReferencedClientClasses();
+        int warmed = StubClassTransformer.warmStubs(referenced);
+        LOGGER.info("[{}] Prepared {} of {} referenced client class stubs", ClientBlockerSF.MOD_ID, warmed, referenced.size());
     }
 
     /**
@@ -53,9 +127,14 @@ public class ModInitHandler {
      */
     @SubscribeEvent(priority = EventPriority.LOWEST)
     public void onLateInit(FMLLoadCompleteEvent event) {
+        BootProfiler.Phase phase = BootProfiler.begin("load complete");
         LOGGER.info("[{}] Applying late compatibility fixes", ClientBlockerSF.MOD_ID);
 
+        // Make sure pre-warming is done before the server thread can need a stub
+        StubPrewarmer.awaitCompletion(PREWARM_TIMEOUT_MS);
+
         // Apply any late fixes here
+        BootProfiler.end(phase);
     }
 
     /**
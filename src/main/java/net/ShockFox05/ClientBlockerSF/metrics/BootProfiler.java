@@ -0,0 +1,231 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records a timeline of the server boot phases this mod takes part in.
+ * Each phase splits the time since the previous phase into this mod's stub, compat and scan work and everything else.
+ * After boot, a compact report with a diff against the previous boot is written to the server directory.
+ */
+public class BootProfiler {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String TIMELINE_FILE = "boot-timeline.tsv";
+    private static final String REPORT_FILE = "boot-report.txt";
+    private static final String HEADER = "phase\tatMs\thandlerMs\tstubMs\tcompatMs\tscanMs\totherMs";
+
+    private static final List<PhaseRecord> PHASES = new ArrayList<>();
+    private static final LongAdder SCAN_NANOS = new LongAdder();
+
+    private static long lastMarkUptimeMs = 0;
+    private static long lastStubNanos = 0;
+    private static long lastCompatNanos = 0;
+    private static long lastScanNanos = 0;
+
+    /**
+     * Start timing a boot phase handled by this mod.
+     *
+     * @param name The name of the phase
+     * @return The running phase, to be passed to {@link #end(Phase)}
+     */
+    public static Phase begin(String name) {
+        return new Phase(name, System.nanoTime());
+    }
+
+    /**
+     * Finish a boot phase and add it to the timeline.
+     *
+     * @param phase The phase returned by {@link #begin(String)}
+     */
+    public static synchronized void end(Phase phase) {
+        long handlerNanos = System.nanoTime() - phase.startNanos;
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        long stubNanos = getStubNanos();
+        long compatNanos = getCompatNanos();
+        long scanNanos = SCAN_NANOS.sum();
+
+        long intervalMs = uptimeMs - lastMarkUptimeMs;
+        long stubMs = (stubNanos - lastStubNanos) / 1_000_000;
+        long compatMs = (compatNanos - lastCompatNanos) / 1_000_000;
+        long scanMs = (scanNanos - lastScanNanos) / 1_000_000;
+        long otherMs = Math.max(0, intervalMs - stubMs - compatMs - scanMs);
+
+        PHASES.add(new PhaseRecord(phase.name, uptimeMs, handlerNanos / 1_000_000, stubMs, compatMs, scanMs, otherMs));
+        LOGGER.debug("[{}] Boot phase {} finished at {} ms (handler {} ms)",
+                ClientBlockerSF.MOD_ID, phase.name, uptimeMs, handlerNanos / 1_000_000);
+
+        lastMarkUptimeMs = uptimeMs;
+        lastStubNanos = stubNanos;
+        lastCompatNanos = compatNanos;
+        lastScanNanos = scanNanos;
+    }
+
+    /**
+     * Add time spent scanning mod jars.
+     *
+     * @param nanos The scan duration in nanoseconds
+     */
+    public static void addScanTime(long nanos) {
+        SCAN_NANOS.add(nanos);
+    }
+
+    /**
+     * Write the boot timeline and a diff against the previous boot to the mod's output directory.
+     *
+     * @return The path of the written report
+     */
+    public static synchronized Path writeReport() throws IOException {
+        Path directory = ClientBlockerSF.getOutputDirectory();
+        Path timelineFile = directory.resolve(TIMELINE_FILE);
+        Map<String, PhaseRecord> previous = readTimeline(timelineFile);
+
+        List<String> timeline = new ArrayList<>();
+        timeline.add(HEADER);
+        for (PhaseRecord record : PHASES) {
+            timeline.add(record.toLine());
+        }
+
+        List<String> report = new ArrayList<>();
+        report.add("# Boot timeline (ms since JVM start; stub/compat/scan are this mod's work since the previous phase)");
+        report.add(String.format(Locale.ROOT, "%-20s %8s %8s %8s %8s %8s %8s",
+                "phase", "at", "handler", "stub", "compat", "scan", "other"));
+        for (PhaseRecord record : PHASES) {
+            report.add(String.format(Locale.ROOT, "%-20s %8d %8d %8d %8d %8d %8d", record.name, record.atMs,
+                    record.handlerMs, record.stubMs, record.compatMs, record.scanMs, record.otherMs));
+        }
+
+        report.add("");
+        if (previous.isEmpty()) {
+            report.add("# No previous boot to compare against");
+        } else {
+            report.add("# Change against the previous boot");
+            for (PhaseRecord record : PHASES) {
+                PhaseRecord before = previous.get(record.name);
+                if (before == null) {
+                    report.add(String.format(Locale.ROOT, "%-20s (new phase)", record.name));
+                    continue;
+                }
+                report.add(String.format(Locale.ROOT, "%-20s %+8d %+8d %+8d %+8d %+8d %+8d", record.name,
+                        record.atMs - before.atMs, record.handlerMs - before.handlerMs, record.stubMs - before.stubMs,
+                        record.compatMs - before.compatMs, record.scanMs - before.scanMs, record.otherMs - before.otherMs));
+            }
+        }
+
+        Files.write(timelineFile, timeline, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        Path reportFile = directory.resolve(REPORT_FILE);
+        Files.write(reportFile, report, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        for (String line : report) {
+            LOGGER.info("[{}] {}", ClientBlockerSF.MOD_ID, line);
+        }
+        return reportFile;
+    }
+
+    /**
+     * Read the timeline written by a previous boot.
+     */
+    private static Map<String, PhaseRecord> readTimeline(Path file) {
+        Map<String, PhaseRecord> records = new LinkedHashMap<>();
+        if (!Files.exists(file)) {
+            return records;
+        }
+
+        try {
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.isBlank() || line.equals(HEADER)) {
+                    continue;
+                }
+                PhaseRecord record = PhaseRecord.fromLine(line);
+                if (record != null) {
+                    records.put(record.name, record);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("[{}] Failed to read previous boot timeline: {}", ClientBlockerSF.MOD_ID, e.getMessage());
+        }
+        return records;
+    }
+
+    private static long getStubNanos() {
+        return OperationStats.get(OperationStats.Operation.STUB_LOOKUP).getTotalNanos()
+                + OperationStats.get(OperationStats.Operation.BYTECODE_GENERATION).getTotalNanos()
+                + OperationStats.get(OperationStats.Operation.DEFINE_CLASS).getTotalNanos();
+    }
+
+    private static long getCompatNanos() {
+        return OperationStats.get(OperationStats.Operation.APPLY_PATCHES).getTotalNanos()
+                + OperationStats.get(OperationStats.Operation.APPLY_FIXES).getTotalNanos()
+                + OperationStats.get(OperationStats.Operation.HANDLE_EXCEPTION).getTotalNanos();
+    }
+
+    /**
+     * A boot phase that is currently running.
+     */
+    public static class Phase {
+        final String name;
+        final long startNanos;
+
+        Phase(String name, long startNanos) {
+            this.name = name;
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * A finished boot phase.
+     */
+    private static class PhaseRecord {
+        final String name;
+        final long atMs;
+        final long handlerMs;
+        final long stubMs;
+        final long compatMs;
+        final long scanMs;
+        final long otherMs;
+
+        PhaseRecord(String name, long atMs, long handlerMs, long stubMs, long compatMs, long scanMs, long otherMs) {
+            this.name = name;
+            this.atMs = atMs;
+            this.handlerMs = handlerMs;
+            this.stubMs = stubMs;
+            this.compatMs = compatMs;
+            this.scanMs = scanMs;
+            this.otherMs = otherMs;
+        }
+
+        String toLine() {
+            return String.join("\t", name, Long.toString(atMs), Long.toString(handlerMs), Long.toString(stubMs),
+                    Long.toString(compatMs), Long.toString(scanMs), Long.toString(otherMs));
+        }
+
+        static PhaseRecord fromLine(String line) {
+            String[] parts = line.split("\t");
+            if (parts.length != 7) {
+                return null;
+            }
+            try {
+                return new PhaseRecord(parts[0], Long.parseLong(parts[1]), Long.parseLong(parts[2]),
+                        Long.parseLong(parts[3]), Long.parseLong(parts[4]), Long.parseLong(parts[5]), Long.parseLong(parts[6]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Finds the mod responsible for the current call by walking the stack.
+ * Walking the stack is not free, so callers should only do this when the result is actually recorded.
+ */
+public final class CallerAttribution {
+    public static final String UNKNOWN = "unknown";
+
+    private static final StackWalker WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final Set<String> INFRASTRUCTURE_PREFIXES = Set.of(
+            "net.ShockFox05.ClientBlockerSF.", "java.", "javax.", "jdk.", "sun.", "cpw.mods.",
+            "net.neoforged.fml.", "net.neoforged.bus.", "org.objectweb.asm.", "com.google.common.");
+
+    private CallerAttribution() {
+    }
+
+    /**
+     * Find the mod of the first stack frame that does not belong to this mod, the JDK or the mod loader.
+     *
+     * @return The mod id, or {@link #UNKNOWN} if no mod frame was found
+     */
+    public static String findCallingMod() {
+        return WALKER.walk(frames -> frames
+                .map(StackWalker.StackFrame::getDeclaringClass)
+                .filter(type -> !isInfrastructure(type.getName()))
+                .findFirst()
+                .map(CallerAttribution::getModId)
+                .orElse(UNKNOWN));
+    }
+
+    /**
+     * Find the mod of the first stack frame that is neither infrastructure nor excluded by the given filter.
+     *
+     * @param skip Class names to step over as well, for example stubs standing in for client classes
+     * @return The mod id, or {@link #UNKNOWN} if no mod frame was found
+     */
+    public static String findCallingMod(Predicate<String> skip) {
+        return WALKER.walk(frames -> frames
+                .map(StackWalker.StackFrame::getDeclaringClass)
+                .filter(type -> !isInfrastructure(type.getName()) && !skip.test(type.getName()))
+                .findFirst()
+                .map(CallerAttribution::getModId)
+                .orElse(UNKNOWN));
+    }
+
+    /**
+     * Get the mod id of a class from its module; mod jars are loaded as modules named after their mod.
+     */
+    public static String getModId(Class<?> type) {
+        Module module = type.getModule();
+        return module.isNamed() ? module.getName() : UNKNOWN;
+    }
+
+    private static boolean isInfrastructure(String className) {
+        for (String prefix : INFRASTRUCTURE_PREFIXES) {
+            if (className.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,18 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when the compatibility fixes for a mod are applied.
+ */
+@Name("clientblockersf.CompatFix")
+@Label("Compatibility Fix")
+@Category({"ClientBlockerSF", "Compatibility"})
+@Description("Emitted when the compatibility fixes for a mod are applied.")
+@StackTrace(false)
+public class CompatFixEvent extends ModEvent {
+}
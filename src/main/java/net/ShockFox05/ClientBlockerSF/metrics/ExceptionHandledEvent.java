@@ -0,0 +1,23 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when the exception handler decides whether to suppress an exception.
+ */
+@Name("clientblockersf.ExceptionHandled")
+@Label("Exception Handled")
+@Category({"ClientBlockerSF", "Exceptions"})
+@Description("Emitted when the exception handler decides whether to suppress an exception.")
+@StackTrace(false)
+public class ExceptionHandledEvent extends ModEvent {
+    @Label("Exception Type")
+    public String exceptionType;
+
+    @Label("Context")
+    public String context;
+}
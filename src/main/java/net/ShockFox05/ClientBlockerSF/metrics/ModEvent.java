@@ -0,0 +1,36 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+
+/**
+ * Base class for the Java Flight Recorder events emitted by this mod.
+ * Events are only filled in and committed when {@link #shouldCommit()} is true,
+ * so they cost nothing while no recording is running.
+ */
+public abstract class ModEvent extends Event {
+    @Label("Class Name")
+    public String className;
+
+    @Label("Mod Id")
+    public String modId;
+
+    @Label("Outcome")
+    public String outcome;
+
+    /**
+     * End the event and commit it if a recording wants it.
+     *
+     * @param className The class the event is about, or null
+     * @param modId The mod the event is about, or null to attribute it to the calling mod
+     * @param outcome The outcome of the operation
+     */
+    public void complete(String className, String modId, String outcome) {
+        if (shouldCommit()) {
+            this.className = className;
+            this.modId = modId != null ? modId : CallerAttribution.findCallingMod();
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Latency statistics for the stub and compatibility operations performed by this mod.
+ */
+public class OperationStats {
+    private static final Map<Operation, LatencyHistogram> HISTOGRAMS = new EnumMap<>(Operation.class);
+
+    static {
+        for (Operation operation : Operation.values()) {
+            HISTOGRAMS.put(operation, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Record an operation that started at the given {@link System#nanoTime()} value and has just finished.
+     *
+     * @param operation The operation that was performed
+     * @param startNanos The start time from {@link System#nanoTime()}
+     */
+    public static void record(Operation operation, long startNanos) {
+        long elapsed = System.nanoTime() - startNanos;
+        HISTOGRAMS.get(operation).record(elapsed);
+        TickBudget.charge(elapsed);
+    }
+
+    /**
+     * Get the histogram for an operation.
+     */
+    public static LatencyHistogram get(Operation operation) {
+        return HISTOGRAMS.get(operation);
+    }
+
+    /**
+     * Clear the recorded data of every operation.
+     */
+    public static void reset() {
+        HISTOGRAMS.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Format one summary line per operation with count, p50, p99, max, total time and throughput.
+     *
+     * @return The formatted summary lines
+     */
+    public static List<String> getSummary() {
+        List<String> lines = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = HISTOGRAMS.get(operation);
+            lines.add(String.format(Locale.ROOT, "%s: n=%d p50=%s p99=%s max=%s total=%s rate=%.1f/s",
+                    operation.getDisplayName(), histogram.getCount(),
+                    formatNanos(histogram.getPercentileNanos(50)), formatNanos(histogram.getPercentileNanos(99)),
+                    formatNanos(histogram.getMaxNanos()), formatNanos(histogram.getTotalNanos()),
+                    histogram.getThroughputPerSecond()));
+        }
+        return lines;
+    }
+
+    /**
+     * Format a duration with a unit that keeps it readable.
+     */
+    public static String formatNanos(long nanos) {
+        if (nanos < 1_000) {
+            return nanos + "ns";
+        } else if (nanos < 1_000_000) {
+            return String.format(Locale.ROOT, "%.1fus", nanos / 1_000.0);
+        } else if (nanos < 1_000_000_000) {
+            return String.format(Locale.ROOT, "%.1fms", nanos / 1_000_000.0);
+        }
+        return String.format(Locale.ROOT, "%.2fs", nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * The operations that are measured.
+     */
+    public enum Operation {
+        STUB_LOOKUP("stub lookup"),
+        BYTECODE_GENERATION("bytecode generation"),
+        DEFINE_CLASS("defineClass"),
+        APPLY_PATCHES("applyPatches"),
+        APPLY_FIXES("applyFixes"),
+        HANDLE_EXCEPTION("handleException");
+
+        private final String displayName;
+
+        Operation(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.Config;
+import net.ShockFox05.ClientBlockerSF.compat.CompatRegistry;
+import net.ShockFox05.ClientBlockerSF.compat.ExceptionHandler;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassLoader;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassRegistry;
+import net.ShockFox05.ClientBlockerSF.stub.StubTemplateStore;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves this mod's metrics in the Prometheus text exposition format on a localhost-only HTTP endpoint.
+ * Requests are handled on a dedicated single-thread executor and never touch the server thread.
+ */
+public class PrometheusExporter {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final String PREFIX = "clientblockersf_";
+
+    private static HttpServer server;
+    private static ExecutorService executor;
+
+    /**
+     * Start the endpoint on the loopback interface.
+     *
+     * @param port The port to listen on, or 0 to pick a free port
+     * @return The port the endpoint is listening on
+     */
+    public static synchronized int start(int port) throws IOException {
+        if (server != null) {
+            return server.getAddress().getPort();
+        }
+
+        HttpServer httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, ClientBlockerSF.MOD_ID + "-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        httpServer.setExecutor(executor);
+        httpServer.createContext("/metrics", PrometheusExporter::handle);
+        httpServer.start();
+        server = httpServer;
+
+        int boundPort = httpServer.getAddress().getPort();
+        LOGGER.info("[{}] Metrics endpoint listening on http://127.0.0.1:{}/metrics", ClientBlockerSF.MOD_ID, boundPort);
+        return boundPort;
+    }
+
+    /**
+     * Stop the endpoint if it is running.
+     */
+    public static synchronized void stop() {
+        if (server != null) {
+            server.stop(0);
+            executor.shutdownNow();
+            server = null;
+            executor = null;
+            LOGGER.info("[{}] Metrics endpoint stopped", ClientBlockerSF.MOD_ID);
+        }
+    }
+
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            byte[] body = render().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    /**
+     * Render all metrics in the Prometheus text format.
+     *
+     * @return The metrics text
+     */
+    public static String render() {
+        StringBuilder out = new StringBuilder(2048);
+
+        gauge(out, "stubs_loaded", "Number of client classes currently provided by a stub",
+                StubClassRegistry.getLoadedStubCount());
+        gauge(out, "stubs_failed", "Number of client classes whose stub failed to load",
+                StubClassRegistry.getFailedStubCount());
+
+        counter(out, "stub_loader_cached_misses_total", "Class lookups answered from the stub class loader's cache of known misses",
+                StubClassLoader.getCachedMissCount());
+        gauge(out, "stub_generations", "Number of stub class loader generations still in memory",
+                StubClassRegistry.getLiveGenerationCount());
+        counter(out, "stub_generations_unloaded_total", "Stub class loader generations unloaded by the garbage collector",
+                StubClassRegistry.getUnloadedGenerationCount());
+
+        gauge(out, "stub_template_bytes", "Bytes of stub template bytecode held in memory",
+                StubTemplateStore.getResidentBytes());
+        gauge(out, "stub_templates", "Number of distinct stub templates held in memory",
+                StubTemplateStore.getTemplateCount());
+
+        counter(out, "stub_calls_total", "Calls into instrumented stub methods (per method in stub-calls.txt)",
+                StubCallTelemetry.getTotalCalls());
+
+        counter(out, "compat_fixes_applied_total", "Compatibility fixes applied successfully",
+                CompatRegistry.getFixesApplied());
+        counter(out, "compat_patches_applied_total", "Class patches applied successfully",
+                CompatRegistry.getPatchesApplied());
+
+        header(out, "exceptions_suppressed_total", "Exceptions suppressed by the exception handler", "counter");
+        ExceptionHandler.getSuppressedCounts().forEach((type, count) ->
+                sample(out, "exceptions_suppressed_total", "type", type, count));
+
+        header(out, "operations_total", "Stub and compat operations performed", "counter");
+        for (OperationStats.Operation operation : OperationStats.Operation.values()) {
+            sample(out, "operations_total", "operation", operation.name().toLowerCase(Locale.ROOT),
+                    OperationStats.get(operation).getCount());
+        }
+
+        header(out, "operation_seconds", "Latency of stub and compat operations", "summary");
+        for (OperationStats.Operation operation : OperationStats.Operation.values()) {
+            LatencyHistogram histogram = OperationStats.get(operation);
+            String name = operation.name().toLowerCase(Locale.ROOT);
+            out.append(PREFIX).append("operation_seconds{operation=\"").append(name).append("\",quantile=\"0.5\"} ")
+                    .append(seconds(histogram.getPercentileNanos(50))).append('\n');
+            out.append(PREFIX).append("operation_seconds{operation=\"").append(name).append("\",quantile=\"0.99\"} ")
+                    .append(seconds(histogram.getPercentileNanos(99))).append('\n');
+            out.append(PREFIX).append("operation_seconds_sum{operation=\"").append(name).append("\"} ")
+                    .append(seconds(histogram.getTotalNanos())).append('\n');
+            out.append(PREFIX).append("operation_seconds_count{operation=\"").append(name).append("\"} ")
+                    .append(histogram.getCount()).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void gauge(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "gauge");
+        out.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void counter(StringBuilder out, String name, String help, long value) {
+        header(out, name, help, "counter");
+        out.append(PREFIX).append(name).append(' ').append(value).append('\n');
+    }
+
+    private static void header(StringBuilder out, String name, String help, String type) {
+        out.append("# HELP ").append(PREFIX).append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(PREFIX).append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, String label, String labelValue, long value) {
+        out.append(PREFIX).append(name).append('{').append(label).append("=\"")
+                .append(labelValue.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"} ")
+                .append(value).append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1_000_000_000.0);
+    }
+
+    /**
+     * Check if the metrics endpoint is enabled based on config.
+     */
+    public static boolean isEnabled() {
+        try {
+            return Config.ENABLE_METRICS_ENDPOINT.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, default to disabled
+            return false;
+        }
+    }
+
+    /**
+     * Get the configured metrics port.
+     */
+    public static int getConfiguredPort() {
+        try {
+            return Config.METRICS_PORT.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, use the default port
+            return 9464;
+        }
+    }
+}
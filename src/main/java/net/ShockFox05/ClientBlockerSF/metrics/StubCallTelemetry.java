@@ -0,0 +1,298 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.Config;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts calls into stub methods and samples which mods make them.
+ * When enabled, every method of a newly generated stub starts with a call to {@link #onEntry(int)};
+ * when disabled, stubs are generated without it and carry no overhead at all.
+ */
+public class StubCallTelemetry {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String OWNER = "net/ShockFox05/ClientBlockerSF/metrics/StubCallTelemetry";
+    private static final String REPORT_FILE = "stub-calls.txt";
+    private static final int REPORTED_METHODS = 20;
+
+    private static final Map<String, Integer> METHOD_IDS = new ConcurrentHashMap<>();
+    // Grown geometrically under the METHOD_IDS lock; only the first counterCount entries are in use
+    private static volatile MethodCounter[] counters = new MethodCounter[64];
+    private static volatile int counterCount;
+    private static volatile int sampleRate = 64;
+    private static ScheduledExecutorService reporter;
+
+    /**
+     * Record a call into a stub method. Called from instrumented stub bytecode, so it never throws into the stub:
+     * an id with no counter in this copy of the class is ignored, and any other failure is swallowed.
+     *
+     * @param methodId The id assigned to the method when its stub was generated
+     */
+    public static void onEntry(int methodId) {
+        try {
+            // Read the count first: a counter is always stored before the count that covers it is published
+            int count = counterCount;
+            MethodCounter[] current = counters;
+            if (methodId < 0 || methodId >= count || methodId >= current.length) {
+                return;
+            }
+            MethodCounter counter = current[methodId];
+            if (counter == null) {
+                return;
+            }
+            counter.calls.increment();
+
+            // Walking the stack is expensive, so only a sample of the calls is attributed
+            if (ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+                String mod = CallerAttribution.findCallingMod(StubClassMapping::isClientClass);
+                counter.sampledCallers.computeIfAbsent(mod, k -> new LongAdder()).increment();
+            }
+        } catch (Throwable t) {
+            // Telemetry must never break the stub method it is counting
+        }
+    }
+
+    /**
+     * Wrap a class visitor so every method it visits starts by recording the call.
+     *
+     * @param visitor The visitor that receives the stub class
+     * @param className The name of the client class the stub stands in for
+     * @return The instrumenting visitor
+     */
+    public static ClassVisitor instrument(ClassVisitor visitor, String className) {
+        return new ClassVisitor(Opcodes.ASM9, visitor) {
+            @Override
+            public MethodVisitor visitMethod(int access, String name, String descriptor, String signature, String[] exceptions) {
+                MethodVisitor methodVisitor = super.visitMethod(access, name, descriptor, signature, exceptions);
+                if ((access & (Opcodes.ACC_ABSTRACT | Opcodes.ACC_NATIVE)) != 0 || "<clinit>".equals(name)) {
+                    return methodVisitor;
+                }
+
+                int methodId = register(className, name + descriptor);
+                return new MethodVisitor(Opcodes.ASM9, methodVisitor) {
+                    @Override
+                    public void visitCode() {
+                        super.visitCode();
+                        // Does not touch this, so it is also valid before the super constructor call
+                        super.visitLdcInsn(methodId);
+                        super.visitMethodInsn(Opcodes.INVOKESTATIC, OWNER, "onEntry", "(I)V", false);
+                    }
+
+                    @Override
+                    public void visitMaxs(int maxStack, int maxLocals) {
+                        super.visitMaxs(Math.max(maxStack, 1), maxLocals);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Get the id of a stub method, assigning one the first time the method is seen.
+     */
+    private static int register(String className, String method) {
+        String key = className + '.' + method;
+        Integer id = METHOD_IDS.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        synchronized (METHOD_IDS) {
+            id = METHOD_IDS.get(key);
+            if (id == null) {
+                // Publish the counter before the id, so instrumented code never sees an id without a counter
+                int count = counterCount;
+                MethodCounter[] current = counters;
+                if (count == current.length) {
+                    current = Arrays.copyOf(current, current.length * 2);
+                    counters = current;
+                }
+                current[count] = new MethodCounter(className, method);
+                counterCount = count + 1;
+                id = count;
+                METHOD_IDS.put(key, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Get the number of calls into all instrumented stub methods. Per-method counts are only in the report,
+     * since there can be one per stub method.
+     */
+    public static long getTotalCalls() {
+        long total = 0;
+        for (MethodCounter counter : getCounters()) {
+            total += counter.calls.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Get the counters registered so far.
+     */
+    private static List<MethodCounter> getCounters() {
+        int count = counterCount;
+        return Arrays.asList(counters).subList(0, count);
+    }
+
+    /**
+     * Describe the hottest stub methods and the mods calling them.
+     *
+     * @param limit The maximum number of methods to include
+     * @return The report lines, hottest method first
+     */
+    public static List<String> getHottestMethods(int limit) {
+        List<MethodCounter> sorted = new ArrayList<>(getCounters());
+        sorted.sort(Comparator.comparingLong((MethodCounter counter) -> counter.calls.sum()).reversed());
+
+        int rate = sampleRate;
+        List<String> lines = new ArrayList<>();
+        for (MethodCounter counter : sorted.subList(0, Math.min(limit, sorted.size()))) {
+            long calls = counter.calls.sum();
+            if (calls == 0) {
+                break;
+            }
+            StringBuilder line = new StringBuilder().append(calls).append(" calls to ").append(counter.getName());
+            List<Map.Entry<String, LongAdder>> callers = new ArrayList<>(counter.sampledCallers.entrySet());
+            callers.sort(Comparator.comparingLong((Map.Entry<String, LongAdder> entry) -> entry.getValue().sum()).reversed());
+            for (Map.Entry<String, LongAdder> caller : callers) {
+                line.append(", ").append(caller.getKey()).append(" ~").append(caller.getValue().sum() * rate);
+            }
+            lines.add(line.toString());
+        }
+        return lines;
+    }
+
+    /**
+     * Start writing the hottest-methods report periodically.
+     *
+     * @param intervalSeconds The time between reports
+     */
+    public static synchronized void startReporting(int intervalSeconds) {
+        if (reporter != null) {
+            return;
+        }
+        sampleRate = getConfiguredSampleRate();
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, ClientBlockerSF.MOD_ID + "-stub-calls");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(StubCallTelemetry::report, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+        LOGGER.info("[{}] Stub call telemetry enabled, reporting every {} s (sampling 1 in {} calls)",
+                ClientBlockerSF.MOD_ID, intervalSeconds, sampleRate);
+    }
+
+    /**
+     * Stop the periodic report and write a final one.
+     */
+    public static synchronized void stopReporting() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+            report();
+        }
+    }
+
+    private static void report() {
+        List<String> hottest = getHottestMethods(REPORTED_METHODS);
+        if (hottest.isEmpty()) {
+            return;
+        }
+
+        LOGGER.info("[{}] Hottest stub methods (caller counts estimated from samples):", ClientBlockerSF.MOD_ID);
+        for (String line : hottest) {
+            LOGGER.info("[{}]   {}", ClientBlockerSF.MOD_ID, line);
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("# Calls into stub methods, hottest first; caller counts are estimated from 1 in " + sampleRate + " calls");
+        lines.addAll(getHottestMethods(Integer.MAX_VALUE));
+        try {
+            Path reportFile = ClientBlockerSF.getOutputDirectory().resolve(REPORT_FILE);
+            Files.write(reportFile, lines, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.warn("[{}] Failed to write stub call report: {}", ClientBlockerSF.MOD_ID, e.getMessage());
+        }
+    }
+
+    /**
+     * Check if stub call telemetry is enabled based on config.
+     * Only stubs generated while it is enabled are instrumented.
+     */
+    public static boolean isEnabled() {
+        try {
+            return Config.STUB_CALL_TELEMETRY.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, default to disabled
+            return false;
+        }
+    }
+
+    /**
+     * Get the configured sample rate for caller attribution.
+     */
+    public static int getConfiguredSampleRate() {
+        try {
+            return Config.STUB_CALL_SAMPLE_RATE.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, use the default rate
+            return 64;
+        }
+    }
+
+    /**
+     * Get the configured interval between reports in seconds.
+     */
+    public static int getConfiguredReportInterval() {
+        try {
+            return Config.STUB_CALL_REPORT_INTERVAL.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, use the default interval
+            return 300;
+        }
+    }
+
+    /**
+     * Calls into one stub method, with sampled calling mods.
+     */
+    private static class MethodCounter {
+        final String className;
+        final String method;
+        final LongAdder calls = new LongAdder();
+        final Map<String, LongAdder> sampledCallers = new ConcurrentHashMap<>();
+
+        MethodCounter(String className, String method) {
+            this.className = className;
+            this.method = method;
+        }
+
+        String getName() {
+            return className + '.' + method;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Emitted when the stub class loader is asked for a client class.
+ */
+@Name("clientblockersf.StubLoad")
+@Label("Stub Class Load")
+@Category({"ClientBlockerSF", "Stubs"})
+@Description("Emitted when the stub class loader is asked for a client class.")
+@StackTrace(false)
+public class StubLoadEvent extends ModEvent {
+}
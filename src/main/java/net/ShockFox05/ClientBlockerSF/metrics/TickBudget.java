@@ -0,0 +1,127 @@
+package net.ShockFox05.ClientBlockerSF.metrics;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.Config;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Limits the time this mod spends on exception handling and stub work per server tick.
+ * Time measured for {@link OperationStats} on the server thread is charged to the current tick. When a tick goes over
+ * budget, logging detail is stepped down one stage; after a run of ticks within budget it is stepped back up.
+ * Each change is announced with a single summary line.
+ */
+public class TickBudget {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int RECOVERY_TICKS = 200;
+
+    private static volatile Thread serverThread;
+    private static volatile DetailLevel level = DetailLevel.FULL;
+    private static final LongAdder SKIPPED_LOG_LINES = new LongAdder();
+
+    // Only touched by the server thread
+    private static long spentNanos;
+    private static int operations;
+    private static int ticksWithinBudget;
+    private static long tickCount;
+
+    /**
+     * How much detail exception handling and stub work may log.
+     */
+    public enum DetailLevel {
+        /** Every event is logged as configured. */
+        FULL,
+        /** One line per event, no stack traces and no informational lines. */
+        REDUCED,
+        /** Nothing is logged per event; events are only counted. */
+        COUNT_ONLY
+    }
+
+    /**
+     * Start accounting a new server tick on the calling thread.
+     */
+    public static void startTick() {
+        serverThread = Thread.currentThread();
+        spentNanos = 0;
+        operations = 0;
+    }
+
+    /**
+     * Charge time spent on the calling thread to the current tick, if the calling thread is the server thread.
+     *
+     * @param nanos The time spent
+     */
+    public static void charge(long nanos) {
+        if (Thread.currentThread() == serverThread) {
+            spentNanos += nanos;
+            operations++;
+        }
+    }
+
+    /**
+     * Finish the current tick and adjust the detail level against the budget.
+     */
+    public static void endTick() {
+        if (Thread.currentThread() != serverThread) {
+            return;
+        }
+        tickCount++;
+
+        long budgetNanos = getBudgetNanos();
+        if (budgetNanos <= 0) {
+            return;
+        }
+
+        if (spentNanos > budgetNanos) {
+            ticksWithinBudget = 0;
+            if (level != DetailLevel.COUNT_ONLY) {
+                DetailLevel next = DetailLevel.values()[level.ordinal() + 1];
+                LOGGER.warn("[{}] Spent {} on {} exception and stub operations in tick {}, over the {} budget; reducing log detail to {}",
+                        ClientBlockerSF.MOD_ID, OperationStats.formatNanos(spentNanos), operations, tickCount,
+                        OperationStats.formatNanos(budgetNanos), next);
+                level = next;
+            }
+        } else if (level != DetailLevel.FULL && ++ticksWithinBudget >= RECOVERY_TICKS) {
+            ticksWithinBudget = 0;
+            DetailLevel next = DetailLevel.values()[level.ordinal() - 1];
+            LOGGER.info("[{}] {} ticks within budget, restoring log detail to {} ({} log lines skipped while reduced)",
+                    ClientBlockerSF.MOD_ID, RECOVERY_TICKS, next, SKIPPED_LOG_LINES.sumThenReset());
+            level = next;
+        }
+    }
+
+    /**
+     * Get the current detail level.
+     */
+    public static DetailLevel getDetailLevel() {
+        return level;
+    }
+
+    /**
+     * Check if per-event logging is allowed at the given level, counting the line as skipped otherwise.
+     *
+     * @param required The detail level the log line needs
+     * @return true if the line may be logged
+     */
+    public static boolean allows(DetailLevel required) {
+        if (level.ordinal() <= required.ordinal()) {
+            return true;
+        }
+        SKIPPED_LOG_LINES.increment();
+        return false;
+    }
+
+    /**
+     * Get the configured budget per tick in nanoseconds, or 0 if the budget is disabled.
+     */
+    public static long getBudgetNanos() {
+        try {
+            return Config.TICK_BUDGET_MICROS.get() * 1_000L;
+        } catch (Exception e) {
+            // If config isn't loaded yet, use the default budget
+            return 2_000_000L;
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package net.ShockFox05.ClientBlockerSF.scan;
+
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Offline tool that derives the client class index used by {@link StubClassMapping#isClientClass(String)}.
+ * Every class of the Minecraft client that is missing from the server is written, sorted, one per line.
+ * Each side can be given as a jar with named classes (a bundled server jar is unpacked) or as Mojang's official
+ * mappings file, which lists every class of that side under its named form.
+ * The build runs it as {@code generateClientClassIndex} before {@code processResources}.
+ */
+public class ClientClassIndexBuilder {
+    private static final String BUNDLED_JARS = "META-INF/versions/";
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: ClientClassIndexBuilder <client jar or mappings> <server jar or mappings> <output file> [label]");
+            System.exit(2);
+        }
+
+        long start = System.nanoTime();
+        Set<String> clientClasses = readClassNames(Paths.get(args[0]));
+        Set<String> serverClasses = readClassNames(Paths.get(args[1]));
+        Set<String> clientOnly = new TreeSet<>(clientClasses);
+        clientOnly.removeAll(serverClasses);
+
+        Path output = Paths.get(args[2]);
+        List<String> lines = new ArrayList<>();
+        lines.add("# Client-only classes" + (args.length > 3 ? " of Minecraft " + args[3] : "")
+                + ", generated by ./gradlew generateClientClassIndex");
+        lines.addAll(clientOnly);
+        if (output.getParent() != null) {
+            Files.createDirectories(output.getParent());
+        }
+        Files.write(output, lines, StandardCharsets.UTF_8);
+
+        System.out.printf("%d client classes, %d server classes, %d client-only classes written to %s in %d ms%n",
+                clientClasses.size(), serverClasses.size(), clientOnly.size(), output.toAbsolutePath(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Read the binary names of the classes in a jar or an official mappings file.
+     */
+    static Set<String> readClassNames(Path path) throws IOException {
+        if (path.getFileName().toString().endsWith(".jar")) {
+            try (InputStream in = Files.newInputStream(path)) {
+                return readJar(in);
+            }
+        }
+        return readMappings(path);
+    }
+
+    private static Set<String> readJar(InputStream in) throws IOException {
+        Set<String> classNames = new TreeSet<>();
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            if (name.startsWith(BUNDLED_JARS) && name.endsWith(".jar")) {
+                // The vanilla server jar is a bundler that carries the real server jar inside it
+                classNames.addAll(readJar(new ByteArrayInputStream(zip.readAllBytes())));
+            } else if (name.endsWith(".class") && !name.startsWith("META-INF/")
+                    && !name.endsWith("module-info.class") && !name.endsWith("package-info.class")) {
+                classNames.add(name.substring(0, name.length() - ".class".length()).replace('/', '.'));
+            }
+        }
+        return classNames;
+    }
+
+    /**
+     * Read the class names from a ProGuard-style mappings file, where each class starts an unindented
+     * {@code named.Class -> obf:} line.
+     */
+    private static Set<String> readMappings(Path path) throws IOException {
+        Set<String> classNames = new TreeSet<>();
+        for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+            if (line.isEmpty() || line.startsWith("#") || Character.isWhitespace(line.charAt(0))) {
+                continue;
+            }
+            int arrow = line.indexOf(" -> ");
+            if (arrow > 0 && line.endsWith(":")) {
+                classNames.add(line.substring(0, arrow));
+            }
+        }
+        return classNames;
+    }
+}
@@ -0,0 +1,219 @@
+package net.ShockFox05.ClientBlockerSF.scan;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import net.neoforged.neoforgespi.language.ModAnnotation;
+import net.neoforged.neoforgespi.language.ModFileScanData;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.lang.annotation.ElementType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds mods whose entry points and event subscribers are all client-only, using the {@link ModScanSummary} built
+ * from the scan data FML has already computed for every mod file. No class is read or loaded.
+ * Entry points declared with {@code @Mod(dist = Dist.CLIENT)} are never constructed on a server by FML itself;
+ * the remaining client-only entry points are still constructed, so those mods are only reported.
+ */
+public class ClientOnlyModDetector {
+    private static final Type ONLY_IN = Type.getType("Lnet/neoforged/api/distmarker/OnlyIn;");
+    private static final String REPORT_FILE = "client-only-mods.txt";
+
+    private static volatile List<ClientOnlyMod> lastDetected = List.of();
+
+    /**
+     * Find the client-only mods among the summarized mod files.
+     *
+     * @param summaries The scan data summaries of the mod files
+     * @return The client-only mods, in mod file order
+     */
+    public static List<ClientOnlyMod> detect(List<ModScanSummary> summaries) {
+        List<ClientOnlyMod> result = new ArrayList<>();
+        for (ModScanSummary summary : summaries) {
+            ClientOnlyMod mod = detect(summary);
+            if (mod != null) {
+                result.add(mod);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Decide if a single mod file is client-only.
+     *
+     * @return The client-only mod, or null if any entry point or event subscriber can run on a server
+     */
+    private static ClientOnlyMod detect(ModScanSummary summary) {
+        // A subscriber that runs on the server means the mod does real server work
+        if (summary.hasServerSubscriber() || summary.getEntryPoints().isEmpty()) {
+            return null;
+        }
+
+        List<EntryPoint> clientEntryPoints = new ArrayList<>();
+        for (ModFileScanData.AnnotationData entryPoint : summary.getEntryPoints()) {
+            String className = entryPoint.clazz().getClassName();
+            String parent = summary.getParents().get(className);
+            if (isClientDist(entryPoint.annotationData().get("dist"))) {
+                clientEntryPoints.add(new EntryPoint(className, "@Mod(dist = CLIENT)", true));
+            } else if (summary.getClientTypes().contains(className)) {
+                clientEntryPoints.add(new EntryPoint(className, "@OnlyIn(Dist.CLIENT)", false));
+            } else if (parent != null && StubClassMapping.isClientClass(parent)) {
+                clientEntryPoints.add(new EntryPoint(className, "extends client class " + parent, false));
+            } else {
+                return null;
+            }
+        }
+
+        return new ClientOnlyMod(String.join(",", summary.getModIds()), summary.getFileName(), clientEntryPoints);
+    }
+
+    /**
+     * Check if an annotation from FML's scan data is {@code @OnlyIn(Dist.CLIENT)} on a type.
+     *
+     * @param annotation The annotation data
+     */
+    public static boolean isClientOnlyType(ModFileScanData.AnnotationData annotation) {
+        return annotation.targetType() == ElementType.TYPE && ONLY_IN.equals(annotation.annotationType())
+                && isClientDist(annotation.annotationData().get("value"));
+    }
+
+    /**
+     * Check if a dist annotation value names the client and not the dedicated server.
+     * A missing value means the annotation applies to both sides.
+     */
+    static boolean isClientDist(Object value) {
+        if (value instanceof ModAnnotation.EnumHolder holder) {
+            return "CLIENT".equals(holder.value());
+        }
+        if (value instanceof List<?> values) {
+            boolean client = false;
+            for (Object element : values) {
+                if (element instanceof ModAnnotation.EnumHolder holder) {
+                    if ("DEDICATED_SERVER".equals(holder.value())) {
+                        return false;
+                    }
+                    client |= "CLIENT".equals(holder.value());
+                }
+            }
+            return client;
+        }
+        return false;
+    }
+
+    /**
+     * Remember the detected mods so other startup work can leave them out.
+     *
+     * @param mods The client-only mods
+     */
+    public static void setLastDetected(List<ClientOnlyMod> mods) {
+        lastDetected = List.copyOf(mods);
+    }
+
+    /**
+     * Get the mods found by the last detection.
+     */
+    public static List<ClientOnlyMod> getLastDetected() {
+        return lastDetected;
+    }
+
+    /**
+     * Check if a mod file was detected as client-only by the last detection.
+     *
+     * @param fileName The file name of the mod
+     */
+    public static boolean isClientOnly(String fileName) {
+        for (ClientOnlyMod mod : lastDetected) {
+            if (mod.fileName.equals(fileName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Write the detected mods and whether FML still constructs them to the mod's folder in the game directory.
+     *
+     * @param mods The client-only mods
+     * @return The path of the written report
+     */
+    public static Path writeReport(List<ClientOnlyMod> mods) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Client-only mods detected on this dedicated server");
+        lines.add("# These mods do nothing on a server; remove them from the server pack (see ./gradlew buildServerPack)");
+        for (ClientOnlyMod mod : mods) {
+            lines.add("");
+            lines.add(mod.modIds + " | " + mod.fileName);
+            for (EntryPoint entryPoint : mod.entryPoints) {
+                lines.add("  " + entryPoint.className + " (" + entryPoint.reason + "): " + describeConstruction(entryPoint));
+            }
+        }
+
+        Path reportFile = ClientBlockerSF.getOutputDirectory().resolve(REPORT_FILE);
+        Files.write(reportFile, lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        return reportFile;
+    }
+
+    /**
+     * Describe whether FML constructs an entry point on this server. This mod cannot prevent the construction.
+     */
+    public static String describeConstruction(EntryPoint entryPoint) {
+        return entryPoint.skippedByFml ? "not constructed by FML" : "still constructed by FML, remove the jar to skip it";
+    }
+
+    /**
+     * A mod file whose entry points and event subscribers are all client-only.
+     */
+    public static class ClientOnlyMod {
+        final String modIds;
+        final String fileName;
+        final List<EntryPoint> entryPoints;
+
+        ClientOnlyMod(String modIds, String fileName, List<EntryPoint> entryPoints) {
+            this.modIds = modIds;
+            this.fileName = fileName;
+            this.entryPoints = entryPoints;
+        }
+
+        public String getModIds() {
+            return modIds;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public List<EntryPoint> getEntryPoints() {
+            return entryPoints;
+        }
+    }
+
+    /**
+     * A client-only {@code @Mod} entry point and why it is client-only.
+     */
+    public static class EntryPoint {
+        final String className;
+        final String reason;
+        final boolean skippedByFml;
+
+        EntryPoint(String className, String reason, boolean skippedByFml) {
+            this.className = className;
+            this.reason = reason;
+            this.skippedByFml = skippedByFml;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package net.ShockFox05.ClientBlockerSF.scan;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.Config;
+import net.ShockFox05.ClientBlockerSF.metrics.BootProfiler;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import net.neoforged.fml.ModList;
+import net.neoforged.neoforgespi.language.IModFileInfo;
+import net.neoforged.neoforgespi.language.IModInfo;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Scans the constant pools of every class in every mod jar for references to client-only classes.
+ * Jars are scanned in parallel and no scanned class is ever loaded.
+ */
+public class ClientReferenceScanner {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Set<String> SKIPPED_MODS = Set.of("minecraft", "neoforge", ClientBlockerSF.MOD_ID);
+    private static final String REPORT_FILE = "client-references.txt";
+
+    private static volatile List<ModReport> lastReports = List.of();
+
+    /**
+     * Scan all loaded mod files for client class references.
+     *
+     * @return One report per scanned mod file, sorted by mod id
+     */
+    public static List<ModReport> scanLoadedMods() {
+        List<IModFileInfo> modFiles = ModList.get().getModFiles().stream()
+                .filter(file -> file.getMods().stream().map(IModInfo::getModId).noneMatch(SKIPPED_MODS::contains))
+                // Client-only mods never run on the server, so their references cannot need stubs
+                .filter(file -> !ClientOnlyModDetector.isClientOnly(file.getFile().getFileName()))
+                .toList();
+
+        long start = System.nanoTime();
+        List<ModReport> reports = modFiles.parallelStream()
+                .map(ClientReferenceScanner::scanModFile)
+                .sorted(Comparator.comparing(report -> report.modIds))
+                .toList();
+        long elapsedNanos = System.nanoTime() - start;
+        long elapsedMs = elapsedNanos / 1_000_000;
+        BootProfiler.addScanTime(elapsedNanos);
+
+        lastReports = reports;
+        int affected = (int) reports.stream().filter(ModReport::hasClientReferences).count();
+        LOGGER.info("[{}] Scanned {} mod files in {} ms: {} reference client classes, {} distinct client classes found",
+                ClientBlockerSF.MOD_ID, reports.size(), elapsedMs, affected, getReferencedClientClasses().size());
+        return reports;
+    }
+
+    /**
+     * Scan a single mod file by walking its jar contents.
+     */
+    private static ModReport scanModFile(IModFileInfo modFileInfo) {
+        String modIds = modFileInfo.getMods().stream().map(IModInfo::getModId).collect(Collectors.joining(","));
+        String fileName = modFileInfo.getFile().getFileName();
+        ModReport report = new ModReport(modIds, fileName);
+
+        Path root = modFileInfo.getFile().getSecureJar().getRootPath();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(path -> path.toString().endsWith(".class"))
+                    .forEach(path -> scanClassFile(root, path, report));
+        } catch (IOException e) {
+            LOGGER.warn("[{}] Failed to scan mod file {}: {}", ClientBlockerSF.MOD_ID, fileName, e.getMessage());
+        }
+        return report;
+    }
+
+    /**
+     * Scan one class file and record any client references it contains.
+     */
+    private static void scanClassFile(Path root, Path path, ModReport report) {
+        String className = root.relativize(path).toString().replace('\\', '/').replace('/', '.');
+        className = className.substring(0, className.length() - ".class".length());
+        if (className.endsWith("module-info") || className.endsWith("package-info")) {
+            return;
+        }
+
+        try {
+            Set<String> referenced = ConstantPoolReader.readReferencedTypes(Files.readAllBytes(path));
+            report.classesScanned++;
+            for (String type : referenced) {
+                if (StubClassMapping.isClientClass(type)) {
+                    report.clientReferences.computeIfAbsent(type, k -> new TreeSet<>()).add(className);
+                }
+            }
+        } catch (IOException | IllegalArgumentException | IndexOutOfBoundsException e) {
+            report.unreadableClasses++;
+            LOGGER.debug("[{}] Could not read constant pool of {}: {}", ClientBlockerSF.MOD_ID, className, e.getMessage());
+        }
+    }
+
+    /**
+     * Get the distinct client classes referenced by any mod in the last scan.
+     *
+     * @return A sorted set of client class names
+     */
+    public static Set<String> getReferencedClientClasses() {
+        Set<String> result = new TreeSet<>();
+        for (ModReport report : lastReports) {
+            result.addAll(report.clientReferences.keySet());
+        }
+        return result;
+    }
+
+    /**
+     * Get the reports produced by the last scan.
+     *
+     * @return The per-mod reports, or an empty list if no scan has run
+     */
+    public static List<ModReport> getLastReports() {
+        return lastReports;
+    }
+
+    /**
+     * Write the last scan as a per-mod report to the mod's folder in the game directory.
+     *
+     * @return The path of the written report
+     */
+    public static Path writeReport() throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Client class references by mod");
+        for (ModReport report : lastReports) {
+            if (!report.hasClientReferences()) {
+                continue;
+            }
+            lines.add("");
+            lines.add(report.modIds + " | " + report.fileName + " | " + report.classesScanned + " classes scanned, "
+                    + report.clientReferences.size() + " client classes referenced");
+            report.clientReferences.forEach((clientClass, users) ->
+                    lines.add("  " + clientClass + " <- " + String.join(", ", users)));
+        }
+
+        Path reportFile = ClientBlockerSF.getOutputDirectory().resolve(REPORT_FILE);
+        Files.write(reportFile, lines, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+        return reportFile;
+    }
+
+    /**
+     * Check if mod jar scanning is enabled based on config.
+     */
+    public static boolean isEnabled() {
+        try {
+            return Config.SCAN_MOD_JARS.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, default to disabled
+            return false;
+        }
+    }
+
+    /**
+     * The client references found in a single mod file.
+     */
+    public static class ModReport {
+        final String modIds;
+        final String fileName;
+        final Map<String, Set<String>> clientReferences = new TreeMap<>();
+        int classesScanned;
+        int unreadableClasses;
+
+        ModReport(String modIds, String fileName) {
+            this.modIds = modIds;
+            this.fileName = fileName;
+        }
+
+        public String getModIds() {
+            return modIds;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public int getClassesScanned() {
+            return classesScanned;
+        }
+
+        public boolean hasClientReferences() {
+            return !clientReferences.isEmpty();
+        }
+
+        /**
+         * @return Referenced client class names mapped to the mod classes referencing them
+         */
+        public Map<String, Set<String>> getClientReferences() {
+            return Collections.unmodifiableMap(clientReferences);
+        }
+    }
+}
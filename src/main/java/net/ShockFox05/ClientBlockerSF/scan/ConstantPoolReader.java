@@ -0,0 +1,149 @@
+package net.ShockFox05.ClientBlockerSF.scan;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Minimal class file reader that extracts the type names referenced from a class's constant pool.
+ * Only the constant pool is parsed; the class is never defined or loaded.
+ */
+public final class ConstantPoolReader {
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_FLOAT = 4;
+    private static final int CONSTANT_LONG = 5;
+    private static final int CONSTANT_DOUBLE = 6;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+    private static final int CONSTANT_METHOD_HANDLE = 15;
+    private static final int CONSTANT_METHOD_TYPE = 16;
+    private static final int CONSTANT_DYNAMIC = 17;
+    private static final int CONSTANT_INVOKE_DYNAMIC = 18;
+    private static final int CONSTANT_MODULE = 19;
+    private static final int CONSTANT_PACKAGE = 20;
+
+    private ConstantPoolReader() {
+    }
+
+    /**
+     * Collect every type referenced by a class file's constant pool.
+     * This covers class entries as well as types mentioned in member descriptors and generic signatures.
+     *
+     * @param classBytes The raw class file bytes
+     * @return The referenced types as dotted class names
+     * @throws IllegalArgumentException if the bytes are not a valid class file
+     */
+    public static Set<String> readReferencedTypes(byte[] classBytes) {
+        if (classBytes.length < 10 || readInt(classBytes, 0) != 0xCAFEBABE) {
+            throw new IllegalArgumentException("Not a class file");
+        }
+
+        int count = readUnsignedShort(classBytes, 8);
+        int[] offsets = new int[count];
+        byte[] tags = new byte[count];
+        boolean[] literal = new boolean[count];
+        boolean[] className = new boolean[count];
+
+        // First pass: record where each entry starts and which UTF-8 entries are class names or string literals
+        int offset = 10;
+        for (int i = 1; i < count; i++) {
+            int tag = classBytes[offset] & 0xFF;
+            tags[i] = (byte) tag;
+            offsets[i] = offset + 1;
+            switch (tag) {
+                case CONSTANT_UTF8 -> offset += 3 + readUnsignedShort(classBytes, offset + 1);
+                case CONSTANT_CLASS -> {
+                    className[readUnsignedShort(classBytes, offset + 1)] = true;
+                    offset += 3;
+                }
+                case CONSTANT_STRING -> {
+                    literal[readUnsignedShort(classBytes, offset + 1)] = true;
+                    offset += 3;
+                }
+                case CONSTANT_METHOD_TYPE, CONSTANT_MODULE, CONSTANT_PACKAGE -> offset += 3;
+                case CONSTANT_METHOD_HANDLE -> offset += 4;
+                case CONSTANT_INTEGER, CONSTANT_FLOAT, CONSTANT_FIELDREF, CONSTANT_METHODREF,
+                     CONSTANT_INTERFACE_METHODREF, CONSTANT_NAME_AND_TYPE, CONSTANT_DYNAMIC,
+                     CONSTANT_INVOKE_DYNAMIC -> offset += 5;
+                case CONSTANT_LONG, CONSTANT_DOUBLE -> {
+                    offset += 9;
+                    i++;
+                }
+                default -> throw new IllegalArgumentException("Unknown constant pool tag " + tag + " at entry " + i);
+            }
+        }
+
+        // Second pass: decode UTF-8 entries that can hold type names
+        Set<String> types = new HashSet<>();
+        for (int i = 1; i < count; i++) {
+            if (tags[i] != CONSTANT_UTF8 || literal[i]) {
+                continue;
+            }
+
+            String value = readUtf8(classBytes, offsets[i]);
+            if (className[i] && value.charAt(0) != '[') {
+                types.add(value.replace('/', '.'));
+            } else {
+                collectDescriptorTypes(value, types);
+            }
+        }
+        return types;
+    }
+
+    /**
+     * Extract every {@code Lname;} object type from a descriptor or generic signature.
+     */
+    private static void collectDescriptorTypes(String descriptor, Set<String> types) {
+        int start = descriptor.indexOf('L');
+        while (start >= 0) {
+            int end = start + 1;
+            while (end < descriptor.length()) {
+                char c = descriptor.charAt(end);
+                if (c == ';' || c == '<' || c == '.') {
+                    break;
+                }
+                end++;
+            }
+
+            // Only accept well formed, package qualified names so plain text is not misread
+            if (end < descriptor.length() && end > start + 1 && descriptor.indexOf('/', start) < end) {
+                types.add(descriptor.substring(start + 1, end).replace('/', '.'));
+            }
+            start = descriptor.indexOf('L', end);
+        }
+    }
+
+    private static String readUtf8(byte[] bytes, int offset) {
+        int length = readUnsignedShort(bytes, offset);
+        int position = offset + 2;
+        int end = position + length;
+        char[] chars = new char[length];
+        int size = 0;
+
+        // Modified UTF-8 as used by class files
+        while (position < end) {
+            int c = bytes[position++] & 0xFF;
+            if (c < 0x80) {
+                chars[size++] = (char) c;
+            } else if (c < 0xE0) {
+                chars[size++] = (char) (((c & 0x1F) << 6) | (bytes[position++] & 0x3F));
+            } else {
+                chars[size++] = (char) (((c & 0x0F) << 12) | ((bytes[position++] & 0x3F) << 6) | (bytes[position++] & 0x3F));
+            }
+        }
+        return new String(chars, 0, size);
+    }
+
+    private static int readUnsignedShort(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 8) | (bytes[offset + 1] & 0xFF);
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+}
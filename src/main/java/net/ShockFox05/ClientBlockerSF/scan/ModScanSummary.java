@@ -0,0 +1,110 @@
+package net.ShockFox05.ClientBlockerSF.scan;
+
+import net.neoforged.neoforgespi.language.IModFileInfo;
+import net.neoforged.neoforgespi.language.IModInfo;
+import net.neoforged.neoforgespi.language.ModFileScanData;
+import org.objectweb.asm.Type;
+
+import java.lang.annotation.ElementType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of the scan data FML has already computed for one mod file that this mod uses, read in a single pass
+ * over its classes and annotations. The summaries are built once at construction and shared by
+ * {@link ScanDataStubRegistrar} and {@link ClientOnlyModDetector}, so neither walks the scan data again.
+ */
+public class ModScanSummary {
+    private static final Type MOD = Type.getType("Lnet/neoforged/fml/common/Mod;");
+    private static final Type EVENT_BUS_SUBSCRIBER = Type.getType("Lnet/neoforged/fml/common/EventBusSubscriber;");
+
+    private final List<String> modIds;
+    private final String fileName;
+    private final Map<String, String> parents = new HashMap<>();
+    private final Set<String> clientTypes = new HashSet<>();
+    private final List<ModFileScanData.AnnotationData> entryPoints = new ArrayList<>();
+    private boolean serverSubscriber;
+
+    private ModScanSummary(IModFileInfo modFile, ModFileScanData scanData) {
+        this.modIds = modFile.getMods().stream().map(IModInfo::getModId).toList();
+        this.fileName = modFile.getFile().getFileName();
+        for (ModFileScanData.ClassData classData : scanData.getClasses()) {
+            if (classData.parent() != null) {
+                parents.put(classData.clazz().getClassName(), classData.parent().getClassName());
+            }
+        }
+        for (ModFileScanData.AnnotationData annotation : scanData.getAnnotations()) {
+            if (annotation.targetType() != ElementType.TYPE) {
+                continue;
+            }
+            if (ClientOnlyModDetector.isClientOnlyType(annotation)) {
+                clientTypes.add(annotation.clazz().getClassName());
+            } else if (MOD.equals(annotation.annotationType())) {
+                entryPoints.add(annotation);
+            } else if (EVENT_BUS_SUBSCRIBER.equals(annotation.annotationType())
+                    && !ClientOnlyModDetector.isClientDist(annotation.annotationData().get("value"))) {
+                serverSubscriber = true;
+            }
+        }
+    }
+
+    /**
+     * Summarize the scan data of the given mod files. Mod files without scan data are left out.
+     *
+     * @param modFiles The mod files with their scan data
+     * @return The summaries, in mod file order
+     */
+    public static List<ModScanSummary> summarize(Collection<? extends IModFileInfo> modFiles) {
+        List<ModScanSummary> result = new ArrayList<>();
+        for (IModFileInfo modFile : modFiles) {
+            ModFileScanData scanData = modFile.getFile().getScanResult();
+            if (scanData != null) {
+                result.add(new ModScanSummary(modFile, scanData));
+            }
+        }
+        return result;
+    }
+
+    public List<String> getModIds() {
+        return modIds;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Get the superclass of every class in the file.
+     *
+     * @return A map from class name to superclass name
+     */
+    public Map<String, String> getParents() {
+        return parents;
+    }
+
+    /**
+     * Get the types annotated {@code @OnlyIn(Dist.CLIENT)}.
+     */
+    public Set<String> getClientTypes() {
+        return clientTypes;
+    }
+
+    /**
+     * Get the {@code @Mod} annotations on the file's entry point classes.
+     */
+    public List<ModFileScanData.AnnotationData> getEntryPoints() {
+        return entryPoints;
+    }
+
+    /**
+     * Check if the file has an {@code @EventBusSubscriber} that also runs on a dedicated server.
+     */
+    public boolean hasServerSubscriber() {
+        return serverSubscriber;
+    }
+}
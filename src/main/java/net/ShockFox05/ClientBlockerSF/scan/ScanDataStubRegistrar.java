@@ -0,0 +1,61 @@
+package net.ShockFox05.ClientBlockerSF.scan;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Registers stubs from the {@link ModScanSummary} of every mod file, so no jar is read again.
+ * Mod types annotated {@code @OnlyIn(Dist.CLIENT)} are registered as stubs, so the stub class loader hands out a stub
+ * if the server ever looks them up, and client classes that mod classes extend are added to the mapping so they are
+ * listed and pre-warmed. Client interfaces are left out, because every stub template is a class and a mod class
+ * implementing one would fail with {@link IncompatibleClassChangeError}.
+ * Registration only records names; the stubs are produced on first use.
+ */
+public class ScanDataStubRegistrar {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final Set<String> SKIPPED_MODS = Set.of("minecraft", "neoforge", ClientBlockerSF.MOD_ID);
+
+    /**
+     * Register the stubs found in the scan data of the summarized mod files.
+     *
+     * @param summaries The scan data summaries of the mod files
+     * @return The number of client classes added to the stub mapping
+     */
+    public static int register(List<ModScanSummary> summaries) {
+        Set<String> modTypes = new HashSet<>();
+        Set<String> supertypes = new HashSet<>();
+        for (ModScanSummary summary : summaries) {
+            if (summary.getModIds().stream().anyMatch(SKIPPED_MODS::contains)) {
+                continue;
+            }
+            modTypes.addAll(summary.getClientTypes());
+            supertypes.addAll(summary.getParents().values());
+        }
+
+        // Existing mappings keep their stub; everything new is stubbed from the plain template
+        Map<String, Class<?>> mappings = new HashMap<>();
+        for (String modType : modTypes) {
+            if (!StubClassMapping.hasStubClass(modType)) {
+                mappings.put(modType, Object.class);
+            }
+        }
+        for (String supertype : supertypes) {
+            if (StubClassMapping.isClientClass(supertype) && !StubClassMapping.hasStubClass(supertype)) {
+                mappings.put(supertype, Object.class);
+            }
+        }
+
+        StubClassMapping.registerAll(mappings);
+        LOGGER.info("[{}] Registered {} stubs from mod scan data ({} @OnlyIn(Dist.CLIENT) mod types)",
+                ClientBlockerSF.MOD_ID, mappings.size(), modTypes.size());
+        return mappings.size();
+    }
+}
@@ -0,0 +1,322 @@
+package net.ShockFox05.ClientBlockerSF.scan;
+
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.Opcodes;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Offline tool that builds a trimmed server mods folder from a client mods folder.
+ * Every jar is classified as client-only, server-safe or mixed by analysing its bytecode in parallel with the
+ * same client rules as {@link StubClassMapping}. Client-only jars are left out of the server set.
+ * Run it with {@code ./gradlew buildServerPack -PmodsDir=<mods folder>}.
+ */
+public class ServerPackBuilder {
+    private static final String MOD = "Lnet/neoforged/fml/common/Mod;";
+    private static final String ONLY_IN = "Lnet/neoforged/api/distmarker/OnlyIn;";
+    private static final String EVENT_BUS_SUBSCRIBER = "Lnet/neoforged/fml/common/EventBusSubscriber;";
+    private static final String DIST = "Lnet/neoforged/api/distmarker/Dist;";
+    private static final String NESTED_JARS = "META-INF/jarjar/";
+    private static final String REPORT_FILE = "server-pack-report.txt";
+    private static final int MAX_LISTED_REFERENCES = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Usage: ServerPackBuilder <mods folder> <output folder>");
+            System.exit(2);
+        }
+
+        Path modsDir = Paths.get(args[0]);
+        Path outputDir = Paths.get(args[1]);
+        long start = System.nanoTime();
+        List<JarReport> reports = analyze(modsDir);
+        writeServerPack(reports, outputDir);
+
+        long clientOnly = reports.stream().filter(report -> report.classification == Classification.CLIENT_ONLY).count();
+        System.out.printf("Analyzed %d jars in %d ms: %d client-only jars left out, server mods written to %s%n",
+                reports.size(), (System.nanoTime() - start) / 1_000_000, clientOnly, outputDir.resolve("mods").toAbsolutePath());
+        System.out.println("Report written to " + outputDir.resolve(REPORT_FILE).toAbsolutePath());
+    }
+
+    /**
+     * Classify every jar in a mods folder. Jars are analysed in parallel.
+     *
+     * @param modsDir The mods folder
+     * @return One report per jar, sorted by file name
+     */
+    public static List<JarReport> analyze(Path modsDir) throws IOException {
+        List<Path> jars;
+        try (Stream<Path> files = Files.list(modsDir)) {
+            jars = files.filter(path -> path.getFileName().toString().endsWith(".jar")).sorted().toList();
+        }
+
+        return jars.parallelStream()
+                .map(ServerPackBuilder::analyzeJar)
+                .sorted(Comparator.comparing(report -> report.fileName))
+                .toList();
+    }
+
+    /**
+     * Copy every jar that the server needs into {@code <output>/mods} and write the report next to it.
+     *
+     * @param reports The classified jars
+     * @param outputDir The folder to build the server pack in
+     */
+    public static void writeServerPack(List<JarReport> reports, Path outputDir) throws IOException {
+        Path serverMods = outputDir.resolve("mods");
+        Files.createDirectories(serverMods);
+        for (JarReport report : reports) {
+            Path target = serverMods.resolve(report.fileName);
+            if (report.classification == Classification.CLIENT_ONLY) {
+                Files.deleteIfExists(target);
+            } else {
+                Files.copy(report.path, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.write(outputDir.resolve(REPORT_FILE), formatReport(reports), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Format the classification of every jar as report lines.
+     */
+    public static List<String> formatReport(List<JarReport> reports) {
+        List<String> lines = new ArrayList<>();
+        lines.add("# Server pack classification");
+        for (Classification classification : Classification.values()) {
+            long count = reports.stream().filter(report -> report.classification == classification).count();
+            lines.add("# " + classification.label + ": " + count + " jars");
+        }
+
+        for (JarReport report : reports) {
+            lines.add("");
+            lines.add(report.fileName + " | " + report.classification.label + " | " + report.reason);
+            lines.add("  " + report.classesScanned + " classes, " + report.clientClasses + " client-only, "
+                    + report.referencingClasses + " referencing client classes, " + report.entryPoints + " entry points ("
+                    + report.clientEntryPoints + " client-only)" + (report.unreadableClasses > 0
+                    ? ", " + report.unreadableClasses + " unreadable" : ""));
+            int listed = 0;
+            for (String clientClass : report.clientReferences) {
+                if (listed++ == MAX_LISTED_REFERENCES) {
+                    lines.add("  ... and " + (report.clientReferences.size() - MAX_LISTED_REFERENCES) + " more client classes");
+                    break;
+                }
+                lines.add("  -> " + clientClass);
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Analyze all classes in a jar, including jars nested under {@code META-INF/jarjar}.
+     */
+    private static JarReport analyzeJar(Path jar) {
+        JarReport report = new JarReport(jar);
+        try (InputStream in = Files.newInputStream(jar)) {
+            analyzeEntries(in, report);
+        } catch (IOException e) {
+            report.unreadableClasses++;
+            report.reason = "could not read jar: " + e.getMessage();
+        }
+        report.classify();
+        return report;
+    }
+
+    private static void analyzeEntries(InputStream in, JarReport report) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            String name = entry.getName();
+            if (name.endsWith(".class") && !name.endsWith("module-info.class") && !name.endsWith("package-info.class")) {
+                analyzeClass(zip.readAllBytes(), report);
+            } else if (name.startsWith(NESTED_JARS) && name.endsWith(".jar")) {
+                analyzeEntries(new ByteArrayInputStream(zip.readAllBytes()), report);
+            }
+        }
+    }
+
+    /**
+     * Record whether a class is client-only, an entry point or references client classes.
+     */
+    private static void analyzeClass(byte[] bytes, JarReport report) {
+        try {
+            ClassInfo info = new ClassInfo();
+            new ClassReader(bytes).accept(info, ClassReader.SKIP_CODE | ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+
+            boolean referencesClient = false;
+            for (String type : ConstantPoolReader.readReferencedTypes(bytes)) {
+                if (StubClassMapping.isClientClass(type)) {
+                    report.clientReferences.add(type);
+                    referencesClient = true;
+                }
+            }
+
+            report.classesScanned++;
+            if (info.entryPoint) {
+                report.entryPoints++;
+                if (info.clientOnly) {
+                    report.clientEntryPoints++;
+                }
+            }
+            if (info.clientOnly || StubClassMapping.isClientClass(info.name)) {
+                report.clientClasses++;
+            } else if (referencesClient) {
+                report.referencingClasses++;
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            report.unreadableClasses++;
+        }
+    }
+
+    /**
+     * How a jar is used on a dedicated server.
+     */
+    public enum Classification {
+        CLIENT_ONLY("client-only"),
+        MIXED("mixed"),
+        SERVER_SAFE("server-safe");
+
+        final String label;
+
+        Classification(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * The analysis of a single jar.
+     */
+    public static class JarReport {
+        final Path path;
+        final String fileName;
+        final Set<String> clientReferences = new TreeSet<>();
+        Classification classification = Classification.MIXED;
+        String reason = "";
+        int classesScanned;
+        int clientClasses;
+        int referencingClasses;
+        int entryPoints;
+        int clientEntryPoints;
+        int unreadableClasses;
+
+        JarReport(Path path) {
+            this.path = path;
+            this.fileName = path.getFileName().toString();
+        }
+
+        /**
+         * Decide the classification from the collected counts. Unreadable jars are always kept.
+         */
+        void classify() {
+            if (!reason.isEmpty()) {
+                classification = Classification.MIXED;
+            } else if (entryPoints > 0 && clientEntryPoints == entryPoints) {
+                classification = Classification.CLIENT_ONLY;
+                reason = "every @Mod entry point is client-only";
+            } else if (entryPoints == 0 && classesScanned > 0 && clientClasses == classesScanned) {
+                classification = Classification.CLIENT_ONLY;
+                reason = "every class is client-only";
+            } else if (clientClasses == 0 && referencingClasses == 0) {
+                classification = Classification.SERVER_SAFE;
+                reason = "no client classes or client references";
+            } else {
+                classification = Classification.MIXED;
+                reason = "server code with client parts, kept and covered by stubs";
+            }
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public Classification getClassification() {
+            return classification;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+    }
+
+    /**
+     * Collects the dist-related annotations of a class.
+     */
+    private static class ClassInfo extends ClassVisitor {
+        String name = "";
+        boolean entryPoint;
+        boolean clientOnly;
+
+        ClassInfo() {
+            super(Opcodes.ASM9);
+        }
+
+        @Override
+        public void visit(int version, int access, String name, String signature, String superName, String[] interfaces) {
+            this.name = name.replace('/', '.');
+        }
+
+        @Override
+        public AnnotationVisitor visitAnnotation(String descriptor, boolean visible) {
+            return switch (descriptor) {
+                case MOD -> {
+                    entryPoint = true;
+                    yield new DistVisitor("dist");
+                }
+                case ONLY_IN -> new DistVisitor("value");
+                case EVENT_BUS_SUBSCRIBER -> new DistVisitor("value");
+                default -> null;
+            };
+        }
+
+        /**
+         * Marks the class client-only if the given attribute lists {@code Dist.CLIENT} and nothing else.
+         */
+        private class DistVisitor extends AnnotationVisitor {
+            private final String attribute;
+            private boolean client;
+            private boolean server;
+
+            DistVisitor(String attribute) {
+                super(Opcodes.ASM9);
+                this.attribute = attribute;
+            }
+
+            @Override
+            public void visitEnum(String name, String descriptor, String value) {
+                if (DIST.equals(descriptor) && (name == null || attribute.equals(name))) {
+                    client |= "CLIENT".equals(value);
+                    server |= "DEDICATED_SERVER".equals(value);
+                }
+            }
+
+            @Override
+            public AnnotationVisitor visitArray(String name) {
+                return attribute.equals(name) ? this : null;
+            }
+
+            @Override
+            public void visitEnd() {
+                if (client && !server) {
+                    clientOnly = true;
+                }
+            }
+        }
+    }
+}
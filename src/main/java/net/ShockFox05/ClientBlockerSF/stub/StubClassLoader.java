@@ -1,39 +1,97 @@
 package net.ShockFox05.ClientBlockerSF.stub;
 
 import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.metrics.OperationStats;
+import net.ShockFox05.ClientBlockerSF.metrics.StubLoadEvent;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Custom ClassLoader that provides stub implementations for client-only classes.
+ * Each instance is one generation of stubs; a generation and all of its stubs can be unloaded together
+ * once it has been replaced and none of its classes are in use anymore.
+ * Client classes that are mapped or in the exact client class index are answered before parent delegation.
+ * Names that only match a client package prefix are asked of the parent first, since the server may have them,
+ * and are stubbed by {@link #findClass} if it does not. Names that neither could provide are remembered so repeated
+ * misses fail fast.
  */
 public class StubClassLoader extends ClassLoader {
     private static final Logger LOGGER = LogUtils.getLogger();
+    private static final int MAX_KNOWN_MISSES = 16_384;
+    private static final LongAdder CACHED_MISSES = new LongAdder();
+    private final int generation;
+    private final Set<String> knownMisses = ConcurrentHashMap.newKeySet();
+
+    static {
+        // Allow stubs to be defined ahead of time from background threads
+        ClassLoader.registerAsParallelCapable();
+    }
 
     public StubClassLoader(ClassLoader parent) {
-        super(parent);
+        this(parent, 0);
+    }
+
+    public StubClassLoader(ClassLoader parent, int generation) {
+        super(ClientBlockerSF.MOD_ID + "-stubs-" + generation, parent);
+        this.generation = generation;
+    }
+
+    /**
+     * Get the number of class lookups answered from the cache of known misses, across all generations.
+     */
+    public static long getCachedMissCount() {
+        return CACHED_MISSES.sum();
+    }
+
+    /**
+     * Get the generation of this class loader.
+     */
+    public int getGeneration() {
+        return generation;
     }
 
     @Override
-    protected Class<?> findClass(String name) throws ClassNotFoundException {
-        // Check if we have a stub for this class and if the stub system is enabled
-        if (StubClassTransformer.hasStubFor(name) && StubClassTransformerHook.isEnabled()) {
-            byte[] bytecode = StubClassTransformer.getStubBytecode(name);
-            if (bytecode != null) {
-                // Log if enabled in config
-                if (StubClassTransformerHook.shouldLogLoading()) {
-                    LOGGER.info("[{}] Providing stub implementation for client class: {}", ClientBlockerSF.MOD_ID, name);
-                }
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> loadedClass = findLoadedClass(name);
+
+            // Answer known client classes before asking the parent, which would only fail with a full stack trace
+            if (loadedClass == null && StubClassMapping.isMappedClientClass(name) && StubClassTransformerHook.isEnabled()) {
+                loadedClass = findStub(name);
+            }
 
-                Class<?> stubClass = defineClass(name, bytecode, 0, bytecode.length);
+            if (loadedClass == null) {
+                if (knownMisses.contains(name)) {
+                    CACHED_MISSES.increment();
+                    throw new CachedClassNotFoundException(name);
+                }
+                try {
+                    loadedClass = super.loadClass(name, false);
+                } catch (ClassNotFoundException e) {
+                    if (knownMisses.size() < MAX_KNOWN_MISSES) {
+                        knownMisses.add(name);
+                    }
+                    throw e;
+                }
+            }
 
-                // Register this stub in the registry for tracking
-                StubClassRegistry.registerLoadedStub(name, stubClass.getName());
+            if (resolve) {
+                resolveClass(loadedClass);
+            }
+            return loadedClass;
+        }
+    }
 
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+        // Check if we have a stub for this class and if the stub system is enabled
+        if (StubClassTransformer.hasStubFor(name) && StubClassTransformerHook.isEnabled()) {
+            Class<?> stubClass = findStub(name);
+            if (stubClass != null) {
                 return stubClass;
             }
         }
@@ -42,6 +100,63 @@ public class StubClassLoader extends ClassLoader {
         return super.findClass(name);
     }
 
+    /**
+     * Define the stub for a client class and record the attempt.
+     *
+     * @param name The name of the client class
+     * @return The stub class, or null if no stub could be provided
+     */
+    private Class<?> findStub(String name) {
+        StubLoadEvent event = new StubLoadEvent();
+        event.begin();
+        String outcome = "failed";
+        try {
+            Class<?> stubClass = defineStub(name);
+            outcome = stubClass != null ? "stubbed" : "not-found";
+            return stubClass;
+        } finally {
+            event.complete(name, null, outcome);
+        }
+    }
+
+    /**
+     * Define the stub class for a client class, or return it if it was already defined.
+     *
+     * @param name The name of the client class
+     * @return The stub class, or null if no stub bytecode is available
+     */
+    public Class<?> defineStub(String name) {
+        synchronized (getClassLoadingLock(name)) {
+            Class<?> existing = findLoadedClass(name);
+            if (existing != null) {
+                return existing;
+            }
+
+            byte[] bytecode = StubClassTransformer.getStubBytecode(name);
+            if (bytecode == null) {
+                return null;
+            }
+
+            // Log if enabled in config
+            if (StubClassTransformerHook.shouldLogLoading()) {
+                LOGGER.info("[{}] Providing stub implementation for client class: {}", ClientBlockerSF.MOD_ID, name);
+            }
+
+            long start = System.nanoTime();
+            Class<?> stubClass;
+            try {
+                stubClass = defineClass(name, bytecode, 0, bytecode.length);
+            } finally {
+                OperationStats.record(OperationStats.Operation.DEFINE_CLASS, start);
+            }
+
+            // Register this stub in the registry for tracking
+            StubClassRegistry.registerLoadedStub(name, stubClass, generation);
+
+            return stubClass;
+        }
+    }
+
     /**
      * Generate bytecode for a stub class.
      *
@@ -51,31 +166,41 @@ public class StubClassLoader extends ClassLoader {
      */
     public static byte[] generateStubClassBytes(String className, Class<?> stubClass) {
         try {
-            // Get the bytecode of the stub class
-            String stubClassName = stubClass.getName();
-            String resourceName = stubClassName.replace('.', '/') + ".class";
-
-            try (InputStream is = stubClass.getClassLoader().getResourceAsStream(resourceName)) {
-                if (is == null) {
-                    LOGGER.error("[{}] Could not find resource for stub class: {}", ClientBlockerSF.MOD_ID, stubClassName);
-                    return null;
-                }
-
-                // Read the bytecode
-                ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                byte[] buffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = is.read(buffer)) != -1) {
-                    baos.write(buffer, 0, bytesRead);
-                }
-
-                // For now, we just return the stub class bytecode as-is
-                // In a more advanced implementation, we could modify the bytecode to match the target class
-                return baos.toByteArray();
-            }
-        } catch (IOException e) {
+            return generateStubClassBytes(className, StubTemplateStore.getTemplate(stubClass));
+        } catch (IllegalStateException e) {
             LOGGER.error("[{}] Failed to generate stub bytecode for {}", ClientBlockerSF.MOD_ID, className, e);
             return null;
         }
     }
+
+    /**
+     * Generate bytecode for a stub class by renaming a shared template to the client class.
+     *
+     * @param className The name of the class to generate a stub for
+     * @param template The template to rename
+     * @return The generated bytecode
+     */
+    public static byte[] generateStubClassBytes(String className, StubTemplateStore.Template template) {
+        long start = System.nanoTime();
+        try {
+            return template.materialize(className);
+        } finally {
+            OperationStats.record(OperationStats.Operation.BYTECODE_GENERATION, start);
+        }
+    }
+
+    /**
+     * Thrown for names that are already known to be missing. It skips capturing a stack trace,
+     * which is most of the cost of a repeated miss.
+     */
+    private static class CachedClassNotFoundException extends ClassNotFoundException {
+        CachedClassNotFoundException(String name) {
+            super(name);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
 }
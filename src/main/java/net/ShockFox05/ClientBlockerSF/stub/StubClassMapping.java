@@ -1,21 +1,52 @@
 package net.ShockFox05.ClientBlockerSF.stub;
 
 import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.Config;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Maps client-side classes to their stub implementations.
+ * Lookups read an immutable {@link MappingTable} that is swapped as a whole when mappings are registered or the
+ * {@code stubMappings} and {@code clientPackages} config options change, so class loading threads never lock and
+ * never see a half-updated table.
  */
 public class StubClassMapping {
     private static final Logger LOGGER = LogUtils.getLogger();
-    private static final Map<String, Class<?>> STUB_CLASSES = new HashMap<>();
-    private static final Set<String> CLIENT_PACKAGES = new HashSet<>();
+    // The stub templates that configured mappings may name
+    private static final Map<String, Class<?>> TEMPLATES_BY_NAME = Map.of(
+            "ScreenStub", ScreenStub.class,
+            "KeyMappingStub", KeyMappingStub.class,
+            "BufferBuilderStub", BufferBuilderStub.class,
+            "ModelRendererStub", ModelRendererStub.class,
+            "RenderSystemStub", RenderSystemStub.class,
+            "ResourceLocationStub", ResourceLocationStub.class,
+            "Object", Object.class);
+
+    // Mappings registered in code; the published table is rebuilt from these and the configured ones
+    private static final Map<String, Class<?>> REGISTERED_STUBS = new ConcurrentHashMap<>();
+    private static final Set<String> REGISTERED_PACKAGES = ConcurrentHashMap.newKeySet();
+    // Broad prefixes for when the exact client class index is missing; they also match classes the server has
+    private static final List<String> BUILT_IN_PACKAGES = List.of("net.minecraft.client", "com.mojang.blaze3d");
+    private static final AtomicReference<MappingTable> TABLE = new AtomicReference<>(MappingTable.EMPTY);
+    private static final String CLIENT_CLASS_INDEX_RESOURCE = "/" + ClientBlockerSF.MOD_ID + "/client-classes.txt";
+    // Every class of the Minecraft client that the server does not have, sorted; empty if the index was not built
+    private static final String[] CLIENT_CLASS_INDEX = loadClientClassIndex();
+    private static volatile Map<String, Class<?>> configuredStubs = Map.of();
+    private static volatile List<String> configuredPackages = List.of();
 
     static {
         // Register stub classes
@@ -64,40 +95,68 @@ public class StubClassMapping {
         register("net.minecraft.client.gui.screens.multiplayer.LanServerDetection$LanServerList", Object.class);
         register("net.minecraft.client.gui.screens.multiplayer.LanServerDetection$LanServerDetector", Object.class);
         register("net.minecraft.client.gui.screens.multiplayer.LanServerDetection$LanServer", Object.class);
-
-        // Register client packages
-        registerClientPackage("net.minecraft.client");
-        registerClientPackage("com.mojang.blaze3d");
     }
 
     public static void register(String className, Class<?> stubClass) {
         LOGGER.debug("[{}] Registering stub class for: {}", ClientBlockerSF.MOD_ID, className);
-        STUB_CLASSES.put(className, stubClass);
+        REGISTERED_STUBS.put(className, stubClass);
+        publish();
+    }
+
+    /**
+     * Register many stub classes at once, publishing a single new table.
+     *
+     * @param stubClasses Client class names mapped to their stub classes
+     */
+    public static void registerAll(Map<String, Class<?>> stubClasses) {
+        LOGGER.debug("[{}] Registering {} stub classes", ClientBlockerSF.MOD_ID, stubClasses.size());
+        REGISTERED_STUBS.putAll(stubClasses);
+        publish();
     }
 
     public static Class<?> getStubClass(String className) {
-        return STUB_CLASSES.get(className);
+        return TABLE.get().stubClasses.get(className);
     }
 
     public static boolean hasStubClass(String className) {
-        return STUB_CLASSES.containsKey(className);
+        return TABLE.get().stubClasses.containsKey(className);
     }
 
     public static void registerClientPackage(String packageName) {
         LOGGER.debug("[{}] Registering client package: {}", ClientBlockerSF.MOD_ID, packageName);
-        CLIENT_PACKAGES.add(packageName);
+        REGISTERED_PACKAGES.add(packageName);
+        publish();
     }
 
     public static boolean isClientClass(String className) {
+        MappingTable table = TABLE.get();
+
+        // Check the exact index of client-only Minecraft classes
+        if (CLIENT_CLASS_INDEX.length > 0 && Arrays.binarySearch(CLIENT_CLASS_INDEX, className) >= 0) {
+            return true;
+        }
+
         // Check if the class is in a known client package
-        for (String packageName : CLIENT_PACKAGES) {
+        for (String packageName : table.clientPackages) {
             if (className.startsWith(packageName)) {
                 return true;
             }
         }
 
         // Check if we have a stub for this class
-        return hasStubClass(className);
+        return table.stubClasses.containsKey(className);
+    }
+
+    /**
+     * Check if a class is named as client-only on its own: mapped to a stub, or listed in the exact client class index.
+     * Unlike {@link #isClientClass}, a client package prefix alone does not count, since it can also match classes
+     * the server has.
+     *
+     * @param className The fully qualified name of the class
+     */
+    public static boolean isMappedClientClass(String className) {
+        return TABLE.get().stubClasses.containsKey(className)
+                || CLIENT_CLASS_INDEX.length > 0 && Arrays.binarySearch(CLIENT_CLASS_INDEX, className) >= 0;
     }
 
     /**
@@ -106,6 +165,114 @@ public class StubClassMapping {
      * @return A set of all mapped client class names
      */
     public static Set<String> getAllMappedClasses() {
-        return new HashSet<>(STUB_CLASSES.keySet());
+        return new HashSet<>(TABLE.get().stubClasses.keySet());
+    }
+
+    /**
+     * Check if the exact client class index was built into this jar.
+     */
+    public static boolean hasClientClassIndex() {
+        return CLIENT_CLASS_INDEX.length > 0;
+    }
+
+    /**
+     * Load the client class index generated at build time by {@code ClientClassIndexBuilder}.
+     *
+     * @return The sorted client-only class names, or an empty array if the index is missing
+     */
+    private static String[] loadClientClassIndex() {
+        try (InputStream in = StubClassMapping.class.getResourceAsStream(CLIENT_CLASS_INDEX_RESOURCE)) {
+            if (in == null) {
+                LOGGER.info("[{}] No client class index in this build, using client package prefixes", ClientBlockerSF.MOD_ID);
+                return new String[0];
+            }
+            String[] index = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines()
+                    .filter(line -> !line.isEmpty() && !line.startsWith("#"))
+                    .sorted()
+                    .toArray(String[]::new);
+            LOGGER.info("[{}] Loaded client class index with {} classes", ClientBlockerSF.MOD_ID, index.length);
+            return index;
+        } catch (IOException e) {
+            LOGGER.warn("[{}] Failed to read client class index, using client package prefixes: {}",
+                    ClientBlockerSF.MOD_ID, e.getMessage());
+            return new String[0];
+        }
+    }
+
+    /**
+     * Read the {@code stubMappings} and {@code clientPackages} config options and publish the resulting table.
+     * Invalid entries are logged and skipped. Reading, publishing and refreshing the stubs all happen under the lock
+     * {@link #publish()} uses, so two reloads, or a reload and a registration, cannot interleave.
+     *
+     * @return true if the configured mappings or packages changed
+     */
+    public static synchronized boolean applyConfig() {
+        List<? extends String> mappingEntries;
+        List<? extends String> packageEntries;
+        try {
+            mappingEntries = Config.STUB_MAPPINGS.get();
+            packageEntries = Config.CLIENT_PACKAGES.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, keep the current mappings
+            return false;
+        }
+
+        Map<String, Class<?>> stubs = new HashMap<>();
+        for (String entry : mappingEntries) {
+            int separator = entry.indexOf('=');
+            Class<?> stubClass = separator > 0 ? TEMPLATES_BY_NAME.get(entry.substring(separator + 1).trim()) : null;
+            if (stubClass == null) {
+                LOGGER.warn("[{}] Ignoring stub mapping '{}', expected <client class>=<one of {}>",
+                        ClientBlockerSF.MOD_ID, entry, TEMPLATES_BY_NAME.keySet());
+                continue;
+            }
+            stubs.put(entry.substring(0, separator).trim(), stubClass);
+        }
+        List<String> packages = packageEntries.stream().map(String::trim).filter(entry -> !entry.isEmpty()).toList();
+
+        boolean configChanged = !stubs.equals(configuredStubs) || !packages.equals(configuredPackages);
+        Set<String> changed = new HashSet<>(configuredStubs.keySet());
+        changed.addAll(stubs.keySet());
+        configuredStubs = Map.copyOf(stubs);
+        configuredPackages = packages;
+        MappingTable table = publish();
+        StubClassTransformer.refreshStubs(changed);
+        LOGGER.info("[{}] Stub mapping table updated: {} mapped classes and {} client packages ({} and {} from config)",
+                ClientBlockerSF.MOD_ID, table.stubClasses.size(), table.clientPackages.length, stubs.size(), packages.size());
+        return configChanged;
+    }
+
+    /**
+     * Build a new table from the registered and configured mappings and swap it in.
+     * Writers are serialized so a table built from older inputs never replaces a newer one.
+     */
+    private static synchronized MappingTable publish() {
+        Map<String, Class<?>> stubs = new HashMap<>(REGISTERED_STUBS);
+        // Configured mappings win over built-in ones, so a stub can be changed without a rebuild
+        stubs.putAll(configuredStubs);
+
+        // The index only replaces the built-in package prefixes; packages registered by other code are kept
+        Set<String> packages = new LinkedHashSet<>(CLIENT_CLASS_INDEX.length > 0 ? List.of() : BUILT_IN_PACKAGES);
+        packages.addAll(REGISTERED_PACKAGES);
+        packages.addAll(configuredPackages);
+
+        MappingTable table = new MappingTable(Map.copyOf(stubs), packages.toArray(new String[0]));
+        TABLE.set(table);
+        return table;
+    }
+
+    /**
+     * An immutable snapshot of the stub mappings and client packages.
+     */
+    private static class MappingTable {
+        static final MappingTable EMPTY = new MappingTable(Map.of(), new String[0]);
+
+        final Map<String, Class<?>> stubClasses;
+        final String[] clientPackages;
+
+        MappingTable(Map<String, Class<?>> stubClasses, String[] clientPackages) {
+            this.stubClasses = stubClasses;
+            this.clientPackages = clientPackages;
+        }
     }
 }
@@ -4,19 +4,28 @@ import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Registry for tracking which stub classes have been loaded.
+ * Stub classes and their class loader generations are only referenced weakly, so a released generation
+ * can be unloaded by the garbage collector once nothing else uses its classes.
  */
 public class StubClassRegistry {
     private static final Logger LOGGER = LogUtils.getLogger();
-    private static final ConcurrentHashMap<String, String> loadedStubs = new ConcurrentHashMap<>();
-    private static final Set<String> failedStubs = new HashSet<>();
+    private static final ConcurrentHashMap<String, LoadedStub> loadedStubs = new ConcurrentHashMap<>();
+    private static final Set<String> failedStubs = ConcurrentHashMap.newKeySet();
+    private static final ConcurrentHashMap<Integer, GenerationReference> generations = new ConcurrentHashMap<>();
+    private static final ReferenceQueue<StubClassLoader> reclaimedGenerations = new ReferenceQueue<>();
+    private static final AtomicInteger reclaimedCount = new AtomicInteger();
 
     /**
      * Register a stub class that has been loaded.
@@ -26,7 +35,74 @@ public class StubClassRegistry {
      */
     public static void registerLoadedStub(String originalClassName, String stubClassName) {
         LOGGER.debug("[{}] Registered loaded stub: {} -> {}", ClientBlockerSF.MOD_ID, originalClassName, stubClassName);
-        loadedStubs.put(originalClassName, stubClassName);
+        loadedStubs.put(originalClassName, new LoadedStub(stubClassName, -1, null));
+    }
+
+    /**
+     * Register a stub class that has been defined by a stub class loader generation.
+     * The class is only referenced weakly, so the registry never keeps a generation alive.
+     *
+     * @param originalClassName The name of the original client-only class
+     * @param stubClass The stub class that was defined
+     * @param generation The generation of the class loader that defined the stub
+     */
+    public static void registerLoadedStub(String originalClassName, Class<?> stubClass, int generation) {
+        LOGGER.debug("[{}] Registered loaded stub: {} -> {} (generation {})", ClientBlockerSF.MOD_ID,
+                originalClassName, stubClass.getName(), generation);
+        loadedStubs.put(originalClassName, new LoadedStub(stubClass.getName(), generation, new WeakReference<>(stubClass)));
+    }
+
+    /**
+     * Start tracking a stub class loader generation.
+     *
+     * @param loader The class loader of the generation
+     */
+    public static void trackGeneration(StubClassLoader loader) {
+        expungeReclaimed();
+        generations.put(loader.getGeneration(), new GenerationReference(loader, reclaimedGenerations));
+    }
+
+    /**
+     * Release a stub class loader generation. Its stubs are forgotten, so the next lookup of one of the
+     * client classes defines a new stub in the current generation; classes linked against the old stub keep it.
+     *
+     * @param generation The generation to release
+     * @return The number of stubs that were forgotten
+     */
+    public static int releaseGeneration(int generation) {
+        GenerationReference reference = generations.get(generation);
+        if (reference != null) {
+            reference.released = true;
+        }
+
+        int released = 0;
+        for (Map.Entry<String, LoadedStub> entry : loadedStubs.entrySet()) {
+            if (entry.getValue().generation == generation && loadedStubs.remove(entry.getKey(), entry.getValue())) {
+                released++;
+            }
+        }
+        expungeReclaimed();
+        return released;
+    }
+
+    /**
+     * Drop tracking for generations and stub classes the garbage collector has already unloaded.
+     *
+     * @return The number of generations that were found to be unloaded
+     */
+    public static int expungeReclaimed() {
+        int count = 0;
+        Reference<? extends StubClassLoader> reference;
+        while ((reference = reclaimedGenerations.poll()) != null) {
+            GenerationReference generation = (GenerationReference) reference;
+            generations.remove(generation.generation, generation);
+            reclaimedCount.incrementAndGet();
+            count++;
+            LOGGER.debug("[{}] Stub class loader generation {} was unloaded", ClientBlockerSF.MOD_ID, generation.generation);
+        }
+
+        loadedStubs.values().removeIf(stub -> stub.stubClass != null && stub.stubClass.get() == null);
+        return count;
     }
 
     /**
@@ -47,7 +123,7 @@ public class StubClassRegistry {
     public static List<String> getLoadedStubs() {
         List<String> result = new ArrayList<>();
         loadedStubs.forEach((original, stub) -> {
-            result.add(original + " -> " + stub);
+            result.add(original + " -> " + stub.stubClassName);
         });
         return result;
     }
@@ -59,7 +135,8 @@ public class StubClassRegistry {
      * @return true if a stub has been loaded for this class
      */
     public static boolean isStubLoaded(String originalClassName) {
-        return loadedStubs.containsKey(originalClassName);
+        LoadedStub stub = loadedStubs.get(originalClassName);
+        return stub != null && (stub.stubClass == null || stub.stubClass.get() != null);
     }
 
     /**
@@ -79,7 +156,8 @@ public class StubClassRegistry {
      * @return The name of the stub class, or null if no stub was loaded
      */
     public static String getLoadedStubName(String className) {
-        return loadedStubs.get(className);
+        LoadedStub stub = loadedStubs.get(className);
+        return stub != null ? stub.stubClassName : null;
     }
 
     /**
@@ -99,4 +177,81 @@ public class StubClassRegistry {
     public static int getFailedStubCount() {
         return failedStubs.size();
     }
+
+    /**
+     * Get the number of stubs currently registered for a class loader generation.
+     *
+     * @param generation The generation to count
+     * @return The number of stubs defined by that generation
+     */
+    public static int getGenerationStubCount(int generation) {
+        int count = 0;
+        for (LoadedStub stub : loadedStubs.values()) {
+            if (stub.generation == generation) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of class loader generations that are still in memory, including the current one.
+     *
+     * @return The number of live generations
+     */
+    public static int getLiveGenerationCount() {
+        return generations.size();
+    }
+
+    /**
+     * Get the number of released generations that are still in memory because their classes are in use.
+     *
+     * @return The number of released but not yet unloaded generations
+     */
+    public static int getPendingGenerationCount() {
+        int count = 0;
+        for (GenerationReference reference : generations.values()) {
+            if (reference.released) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Get the number of generations that have been unloaded since startup.
+     *
+     * @return The number of unloaded generations
+     */
+    public static int getUnloadedGenerationCount() {
+        return reclaimedCount.get();
+    }
+
+    /**
+     * A loaded stub. Stubs defined by a class loader generation hold their class weakly.
+     */
+    private static class LoadedStub {
+        final String stubClassName;
+        final int generation;
+        final WeakReference<Class<?>> stubClass;
+
+        LoadedStub(String stubClassName, int generation, WeakReference<Class<?>> stubClass) {
+            this.stubClassName = stubClassName;
+            this.generation = generation;
+            this.stubClass = stubClass;
+        }
+    }
+
+    /**
+     * Weak reference to a class loader generation, enqueued once the generation has been unloaded.
+     */
+    private static class GenerationReference extends WeakReference<StubClassLoader> {
+        final int generation;
+        volatile boolean released;
+
+        GenerationReference(StubClassLoader loader, ReferenceQueue<StubClassLoader> queue) {
+            super(loader, queue);
+            this.generation = loader.getGeneration();
+        }
+    }
 }
@@ -3,11 +3,13 @@ package net.ShockFox05.ClientBlockerSF.stub;
 import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
 import net.ShockFox05.ClientBlockerSF.compat.CompatRegistry;
 import net.ShockFox05.ClientBlockerSF.compat.ExceptionHandler;
+import net.ShockFox05.ClientBlockerSF.metrics.OperationStats;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
-import java.util.HashMap;
+import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Provides stub implementations for client-only classes when running on a dedicated server.
@@ -15,7 +17,7 @@ import java.util.Map;
  */
 public class StubClassTransformer {
     private static final Logger LOGGER = LogUtils.getLogger();
-    private static final Map<String, byte[]> stubClasses = new HashMap<>();
+    private static final Map<String, StubTemplateStore.Template> stubClasses = new ConcurrentHashMap<>();
 
     // Register stub classes here
     static {
@@ -53,19 +55,31 @@ public class StubClassTransformer {
      */
     private static void registerStub(String clientClassName, Class<?> stubClass) {
         try {
-            // Get the bytecode of the stub class
-            String stubClassName = stubClass.getName();
-            String resourceName = stubClassName.replace('.', '/') + ".class";
-            byte[] bytecode = stubClass.getClassLoader().getResourceAsStream(resourceName).readAllBytes();
-
-            // Store the bytecode with the client class name
-            stubClasses.put(clientClassName, bytecode);
+            // Share the template bytecode between every client class that uses it
+            stubClasses.put(clientClassName, StubTemplateStore.getTemplate(stubClass));
             LOGGER.info("[{}] Registered stub for client class: {}", ClientBlockerSF.MOD_ID, clientClassName);
         } catch (Exception e) {
             LOGGER.error("[{}] Failed to register stub for {}", ClientBlockerSF.MOD_ID, clientClassName, e);
         }
     }
 
+    /**
+     * Re-resolve the templates of client classes whose mapping has changed.
+     *
+     * @param classNames The client classes whose mapping was added, changed or removed
+     */
+    static void refreshStubs(Collection<String> classNames) {
+        for (String className : classNames) {
+            Class<?> stubClass = StubClassMapping.getStubClass(className);
+            if (stubClass != null && stubClass != Object.class) {
+                stubClasses.put(className, StubTemplateStore.getTemplate(stubClass));
+            } else {
+                // Unmapped client classes are still stubbed on demand if they are in a client package
+                stubClasses.remove(className);
+            }
+        }
+    }
+
     /**
      * Check if we have a stub for the requested class.
      *
@@ -73,7 +87,12 @@ public class StubClassTransformer {
      * @return true if a stub is available
      */
     public static boolean hasStubFor(String className) {
-        return stubClasses.containsKey(className) || StubClassMapping.isClientClass(className);
+        long start = System.nanoTime();
+        try {
+            return stubClasses.containsKey(className) || StubClassMapping.isClientClass(className);
+        } finally {
+            OperationStats.record(OperationStats.Operation.STUB_LOOKUP, start);
+        }
     }
 
     /**
@@ -83,26 +102,84 @@ public class StubClassTransformer {
      * @return The bytecode for the stub class, or null if no stub is available
      */
     public static byte[] getStubBytecode(String className) {
-        // First check if we have a pre-registered stub
-        byte[] bytecode = stubClasses.get(className);
-        if (bytecode != null) {
-            return bytecode;
+        // First check if we have a pre-registered stub, otherwise see if the class can be stubbed on-the-fly
+        StubTemplateStore.Template template = stubClasses.get(className);
+        if (template == null) {
+            if (!StubClassMapping.isClientClass(className)) {
+                return null;
+            }
+            template = ExceptionHandler.executeWithReturn(
+                    () -> StubTemplateStore.getTemplate(getStubClassFor(className)),
+                    "loading stub template for " + className,
+                    null);
+            if (template == null) {
+                return null;
+            }
         }
 
-        // If not, check if we can generate one on-the-fly
-        if (StubClassMapping.isClientClass(className)) {
-            // Get the stub class or use Object as fallback
-            final Class<?> finalStubClass = StubClassMapping.getStubClass(className) != null ?
-                    StubClassMapping.getStubClass(className) : Object.class;
+        // Produce the stub named after the client class
+        final StubTemplateStore.Template finalTemplate = template;
+        return ExceptionHandler.executeWithReturn(
+                () -> StubClassLoader.generateStubClassBytes(className, finalTemplate),
+                "generating stub for " + className,
+                null);
+    }
 
-            // Generate stub bytecode
-            return ExceptionHandler.executeWithReturn(
-                    () -> StubClassLoader.generateStubClassBytes(className, finalStubClass),
-                    "generating stub for " + className,
-                    null);
+    /**
+     * Get the stub implementation class for a client class, using Object as fallback.
+     */
+    private static Class<?> getStubClassFor(String className) {
+        Class<?> stubClass = StubClassMapping.getStubClass(className);
+        return stubClass != null ? stubClass : Object.class;
+    }
+
+    /**
+     * Describe the memory held by stub bytecode.
+     *
+     * @return A one-line summary of template count, resident bytes and the bytes per-name copies would take
+     */
+    public static String getMemorySummary() {
+        long perNameBytes = 0;
+        for (StubTemplateStore.Template template : stubClasses.values()) {
+            perNameBytes += template.getSize();
+        }
+        return String.format("%d stub templates resident in %d bytes for %d client classes (%d bytes as per-name copies)",
+                StubTemplateStore.getTemplateCount(), StubTemplateStore.getResidentBytes(), stubClasses.size(), perNameBytes);
+    }
+
+    /**
+     * Resolve and cache stub templates ahead of time so the first lookup does not pay for reading them.
+     *
+     * @param classNames The client class names to warm
+     * @return The number of stubs that are now cached
+     */
+    public static int warmStubs(Collection<String> classNames) {
+        int warmed = 0;
+        for (String className : classNames) {
+            if (warmStub(className)) {
+                warmed++;
+            }
+        }
+        return warmed;
+    }
+
+    /**
+     * Resolve and cache the stub template for a single client class.
+     * Only the shared template is kept; the renamed variant is produced when the stub is defined.
+     *
+     * @param className The client class name to warm
+     * @return true if the stub template is now cached
+     */
+    public static boolean warmStub(String className) {
+        if (stubClasses.containsKey(className)) {
+            return true;
+        }
+        if (!StubClassMapping.isClientClass(className)) {
+            return false;
         }
 
-        return null;
+        stubClasses.putIfAbsent(className, StubTemplateStore.getTemplate(getStubClassFor(className)));
+        return true;
     }
 
     /**
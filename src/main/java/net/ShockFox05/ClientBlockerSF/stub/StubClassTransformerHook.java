@@ -1,16 +1,27 @@
 package net.ShockFox05.ClientBlockerSF.stub;
 
 import net.ShockFox05.ClientBlockerSF.Config;
+import net.ShockFox05.ClientBlockerSF.metrics.StubCallTelemetry;
+import net.ShockFox05.ClientBlockerSF.metrics.TickBudget;
 import net.neoforged.fml.loading.FMLEnvironment;
 import org.slf4j.Logger;
 import com.mojang.logging.LogUtils;
 
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.WeakHashMap;
+
 /**
  * Hooks into the class loading system to provide stub implementations for client-only classes.
  */
 public class StubClassTransformerHook {
     private static final Logger LOGGER = LogUtils.getLogger();
+    // The threads this mod installed a stub loader on; weak, so threads that have finished are not kept alive
+    private static final Set<Thread> INSTALLED_THREADS = Collections.newSetFromMap(new WeakHashMap<>());
     private static boolean initialized = false;
+    private static volatile StubClassLoader stubLoader;
+    private static volatile boolean stubsInstrumented;
 
     /**
      * Initialize the stub class transformer.
@@ -28,8 +39,9 @@ public class StubClassTransformerHook {
 
                 // Create and register our custom class loader
                 ClassLoader currentLoader = Thread.currentThread().getContextClassLoader();
-                StubClassLoader stubLoader = new StubClassLoader(currentLoader);
-                Thread.currentThread().setContextClassLoader(stubLoader);
+                stubLoader = new StubClassLoader(currentLoader, 0);
+                StubClassRegistry.trackGeneration(stubLoader);
+                install(Thread.currentThread(), stubLoader);
 
                 LOGGER.info("[ClientBlockerSF] Stub class transformer initialized successfully");
             } catch (Exception e) {
@@ -40,6 +52,99 @@ public class StubClassTransformerHook {
         initialized = true;
     }
 
+    /**
+     * Make a stub loader the context class loader of a thread and remember the thread for later generations.
+     */
+    private static synchronized void install(Thread thread, StubClassLoader loader) {
+        thread.setContextClassLoader(loader);
+        INSTALLED_THREADS.add(thread);
+    }
+
+    /**
+     * Get the stub class loader installed by {@link #init()}.
+     *
+     * @return The stub class loader, or null if it has not been installed
+     */
+    public static StubClassLoader getStubLoader() {
+        return stubLoader;
+    }
+
+    /**
+     * Record the settings the current stubs were generated with, once the config is loaded.
+     */
+    public static void onConfigLoaded() {
+        stubsInstrumented = StubCallTelemetry.isEnabled();
+    }
+
+    /**
+     * Start a fresh stub generation after a config reload if an option that changes the generated stubs changed:
+     * the configured stub mappings or client packages, or stub call telemetry. Other reloads keep the generation.
+     *
+     * @param mappingsChanged Whether the configured stub mappings or client packages changed
+     */
+    public static void onConfigReloaded(boolean mappingsChanged) {
+        boolean instrumented = StubCallTelemetry.isEnabled();
+        boolean telemetryChanged = instrumented != stubsInstrumented;
+        stubsInstrumented = instrumented;
+        if (mappingsChanged || telemetryChanged) {
+            releaseGeneration("config reload");
+        }
+    }
+
+    /**
+     * Replace the current stub class loader generation with a new, empty one.
+     * The threads this mod installed the old generation on are moved to the new one if they still use it, and the old
+     * generation is only referenced weakly afterwards. Threads that inherited the old generation as their context class
+     * loader keep it until they finish, so it is unloaded once those threads are gone and no class uses its stubs.
+     * Classes that are already linked against an old stub keep that stub; only lookups made after the release get
+     * a stub from the new generation, which is a different {@link Class} than the old one.
+     *
+     * @param reason Why the generation is released, for logging
+     * @return The number of stubs that were released
+     */
+    public static synchronized int releaseGeneration(String reason) {
+        StubClassLoader current = stubLoader;
+        if (current == null) {
+            return 0;
+        }
+
+        StubClassLoader next = new StubClassLoader(current.getParent(), current.getGeneration() + 1);
+        StubClassRegistry.trackGeneration(next);
+        stubLoader = next;
+        // Only touch threads this mod set the loader on; a thread that has switched to another loader is forgotten
+        int movedThreads = 0;
+        for (Iterator<Thread> threads = INSTALLED_THREADS.iterator(); threads.hasNext(); ) {
+            Thread thread = threads.next();
+            if (thread.getContextClassLoader() == current) {
+                thread.setContextClassLoader(next);
+                movedThreads++;
+            } else {
+                threads.remove();
+            }
+        }
+
+        int released = StubClassRegistry.releaseGeneration(current.getGeneration());
+        LOGGER.info("[ClientBlockerSF] Released stub class loader generation {} with {} stubs from {} threads ({})",
+                current.getGeneration(), released, movedThreads, reason);
+        return released;
+    }
+
+    /**
+     * Sweep unused stubs: release the current generation if it defined any stubs and drop tracking
+     * for generations that have already been unloaded.
+     *
+     * @return A one-line summary of the generations after the sweep
+     */
+    public static String sweepUnusedStubs() {
+        StubClassLoader current = stubLoader;
+        int released = current != null && StubClassRegistry.getGenerationStubCount(current.getGeneration()) > 0
+                ? releaseGeneration("stub sweep") : 0;
+        int unloaded = StubClassRegistry.expungeReclaimed();
+        return String.format("Released %d stubs; %d generations unloaded by this sweep, %d total, %d still in use",
+                released, unloaded, StubClassRegistry.getUnloadedGenerationCount(),
+                StubClassRegistry.getPendingGenerationCount());
+    }
+
     /**
      * Check if the stub system should be enabled based on config.
      * This should only be called after the config is loaded.
@@ -58,11 +163,14 @@ public class StubClassTransformerHook {
      * This should only be called after the config is loaded.
      */
     public static boolean shouldLogLoading() {
+        boolean logStubLoading;
         try {
-            return Config.LOG_STUB_LOADING.get();
+            logStubLoading = Config.LOG_STUB_LOADING.get();
         } catch (Exception e) {
             // If config isn't loaded yet, default to true
-            return true;
+            logStubLoading = true;
         }
+        // Per-stub lines are the first to go while over the tick budget, and only count as skipped if enabled
+        return logStubLoading && TickBudget.allows(TickBudget.DetailLevel.FULL);
     }
 }
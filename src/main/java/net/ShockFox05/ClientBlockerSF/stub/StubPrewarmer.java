@@ -0,0 +1,118 @@
+package net.ShockFox05.ClientBlockerSF.stub;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.Config;
+import net.ShockFox05.ClientBlockerSF.scan.ClientReferenceScanner;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prepares stub templates on background virtual threads before the server starts.
+ * Optionally defines the stubs that mods are known to reference, so the server thread never pays for them.
+ */
+public class StubPrewarmer {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static volatile CompletableFuture<Void> pending = CompletableFuture.completedFuture(null);
+
+    /**
+     * Start pre-warming all mapped stubs and the stubs predicted by the last client reference scan.
+     * Returns immediately; use {@link #awaitCompletion(long)} to wait for the work to finish.
+     */
+    public static synchronized void start() {
+        if (!pending.isDone()) {
+            return;
+        }
+
+        Set<String> referenced = ClientReferenceScanner.getReferencedClientClasses();
+        Set<String> classNames = new TreeSet<>(StubClassMapping.getAllMappedClasses());
+        classNames.addAll(referenced);
+
+        // Only define classes that a mod was actually seen referencing
+        StubClassLoader stubLoader = shouldDefineClasses() ? StubClassTransformerHook.getStubLoader() : null;
+
+        AtomicInteger prepared = new AtomicInteger();
+        AtomicInteger defined = new AtomicInteger();
+        long start = System.nanoTime();
+
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        List<CompletableFuture<Void>> tasks = new ArrayList<>(classNames.size());
+        for (String className : classNames) {
+            boolean define = stubLoader != null && referenced.contains(className);
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    if (StubClassTransformer.warmStub(className)) {
+                        prepared.incrementAndGet();
+                        if (define && stubLoader.defineStub(className) != null) {
+                            defined.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable t) {
+                    StubClassRegistry.registerFailedStub(className);
+                    LOGGER.debug("[{}] Failed to pre-warm stub for {}: {}", ClientBlockerSF.MOD_ID, className, t.toString());
+                }
+            }, executor));
+        }
+        executor.shutdown();
+
+        pending = CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).thenRun(() ->
+                LOGGER.info("[{}] Pre-warmed {} of {} stubs ({} defined) in {} ms", ClientBlockerSF.MOD_ID,
+                        prepared.get(), classNames.size(), defined.get(), (System.nanoTime() - start) / 1_000_000));
+    }
+
+    /**
+     * Wait for a running pre-warm to finish.
+     *
+     * @param timeoutMs The maximum time to wait in milliseconds
+     * @return true if no pre-warm is running anymore
+     */
+    public static boolean awaitCompletion(long timeoutMs) {
+        try {
+            pending.get(timeoutMs, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            LOGGER.warn("[{}] Stub pre-warming did not finish within {} ms, continuing lazily", ClientBlockerSF.MOD_ID, timeoutMs);
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            LOGGER.warn("[{}] Stub pre-warming failed: {}", ClientBlockerSF.MOD_ID, e.getMessage());
+            return true;
+        }
+    }
+
+    /**
+     * Check if stub pre-warming is enabled based on config.
+     */
+    public static boolean isEnabled() {
+        try {
+            return Config.PREWARM_STUBS.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, default to disabled
+            return false;
+        }
+    }
+
+    /**
+     * Check if referenced stubs should also be defined during pre-warming based on config.
+     */
+    public static boolean shouldDefineClasses() {
+        try {
+            return Config.PREWARM_DEFINE_CLASSES.get();
+        } catch (Exception e) {
+            // If config isn't loaded yet, default to disabled
+            return false;
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package net.ShockFox05.ClientBlockerSF.stub;
+
+import net.ShockFox05.ClientBlockerSF.ClientBlockerSF;
+import net.ShockFox05.ClientBlockerSF.metrics.StubCallTelemetry;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.SimpleRemapper;
+import org.slf4j.Logger;
+import com.mojang.logging.LogUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores the bytecode of each stub template once, no matter how many client classes share it.
+ * Templates are compacted when they are first read, so stubs are cheap to define and verify.
+ * The per-name variant of a template is produced on demand by renaming the template to the client class.
+ */
+public class StubTemplateStore {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String OBJECT_TEMPLATE_NAME = "net/ShockFox05/ClientBlockerSF/stub/ObjectStub";
+    private static final Map<Class<?>, Template> TEMPLATES = new ConcurrentHashMap<>();
+
+    /**
+     * Get the template for a stub class, reading its bytecode the first time it is requested.
+     * {@code Object} is served by a generated empty class with a public no-argument constructor.
+     *
+     * @param stubClass The stub implementation class
+     * @return The shared template
+     * @throws IllegalStateException if the template bytecode cannot be read
+     */
+    public static Template getTemplate(Class<?> stubClass) {
+        return TEMPLATES.computeIfAbsent(stubClass, StubTemplateStore::readTemplate);
+    }
+
+    private static Template readTemplate(Class<?> stubClass) {
+        if (stubClass == Object.class) {
+            return new Template(OBJECT_TEMPLATE_NAME, createObjectTemplate());
+        }
+
+        String resourceName = stubClass.getName().replace('.', '/') + ".class";
+        try (InputStream is = stubClass.getClassLoader().getResourceAsStream(resourceName)) {
+            if (is == null) {
+                throw new IllegalStateException("Could not find resource for stub class: " + stubClass.getName());
+            }
+            byte[] bytes = is.readAllBytes();
+            byte[] compacted = compact(bytes);
+            LOGGER.debug("[{}] Loaded stub template {} ({} bytes, {} after compaction)", ClientBlockerSF.MOD_ID,
+                    stubClass.getName(), bytes.length, compacted.length);
+            return new Template(stubClass.getName().replace('.', '/'), compacted);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read stub class: " + stubClass.getName(), e);
+        }
+    }
+
+    /**
+     * Rewrite a template into the cheapest form to define and verify: debug attributes dropped, a constant pool
+     * holding only the entries still in use, and stack map frames recomputed for the final code.
+     *
+     * @param bytes The template bytecode as compiled
+     * @return The compacted bytecode
+     */
+    public static byte[] compact(byte[] bytes) {
+        // Not passing the reader to the writer makes it build a fresh constant pool instead of copying the old one
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                try {
+                    return super.getCommonSuperClass(type1, type2);
+                } catch (RuntimeException e) {
+                    // Templates only build on JDK types, so anything else can only meet at Object
+                    return "java/lang/Object";
+                }
+            }
+        };
+        new ClassReader(bytes).accept(writer, ClassReader.SKIP_DEBUG | ClassReader.SKIP_FRAMES);
+        return writer.toByteArray();
+    }
+
+    private static byte[] createObjectTemplate() {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V21, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, OBJECT_TEMPLATE_NAME, null, "java/lang/Object", null);
+        MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Get the number of distinct templates held.
+     */
+    public static int getTemplateCount() {
+        return TEMPLATES.size();
+    }
+
+    /**
+     * Get the bytes held by all templates, which is the resident size of the stored stub bytecode.
+     */
+    public static long getResidentBytes() {
+        long total = 0;
+        for (Template template : TEMPLATES.values()) {
+            total += template.bytes.length;
+        }
+        return total;
+    }
+
+    /**
+     * A stub template shared by every client class it stands in for.
+     */
+    public static class Template {
+        final String internalName;
+        final byte[] bytes;
+        final int[] nameEntries;
+
+        Template(String internalName, byte[] bytes) {
+            this.internalName = internalName;
+            this.bytes = bytes;
+            this.nameEntries = findNameEntries(bytes, internalName);
+        }
+
+        /**
+         * Produce the variant of this template for a client class by renaming it.
+         * Only constant pool strings change, so every method body is copied unchanged from the template.
+         * While stub call telemetry is enabled, every method also records its calls.
+         *
+         * @param className The name of the client class
+         * @return The bytecode of the stub, named after the client class
+         */
+        public byte[] materialize(String className) {
+            String targetName = className.replace('.', '/');
+            boolean instrument = StubCallTelemetry.isEnabled();
+            if (targetName.equals(internalName) && !instrument) {
+                return bytes.clone();
+            }
+
+            // Modified UTF-8 only matches the characters of ASCII names, anything else is left to ASM
+            if (!instrument && nameEntries != null && isAscii(targetName)) {
+                byte[] renamed = renameInConstantPool(bytes, nameEntries, internalName, targetName);
+                if (renamed != null) {
+                    return renamed;
+                }
+            }
+
+            ClassReader reader = new ClassReader(bytes);
+            ClassWriter writer = new ClassWriter(0);
+            ClassVisitor visitor = new ClassRemapper(writer, new SimpleRemapper(internalName, targetName));
+            if (instrument) {
+                // Only added while telemetry is enabled, so uninstrumented stubs are byte-for-byte unchanged
+                visitor = StubCallTelemetry.instrument(visitor, className);
+            }
+            reader.accept(visitor, 0);
+            return writer.toByteArray();
+        }
+
+        /**
+         * Get the size of the template bytecode.
+         */
+        public int getSize() {
+            return bytes.length;
+        }
+    }
+
+    /**
+     * Find the UTF8 constant pool entries that hold a class name, either on its own or inside a descriptor.
+     *
+     * @param bytes The class bytecode
+     * @param name The internal name to look for
+     * @return The offsets of the matching entries, or null if the constant pool uses an unknown entry type
+     */
+    static int[] findNameEntries(byte[] bytes, String name) {
+        String descriptor = "L" + name + ";";
+        int[] offsets = new int[8];
+        int found = 0;
+
+        int count = ((bytes[8] & 0xFF) << 8) | (bytes[9] & 0xFF);
+        int offset = 10;
+        for (int index = 1; index < count; index++) {
+            int tag = bytes[offset];
+            switch (tag) {
+                case 1 -> {
+                    int length = ((bytes[offset + 1] & 0xFF) << 8) | (bytes[offset + 2] & 0xFF);
+                    // Names are ASCII, and ASCII bytes only ever stand for themselves in modified UTF-8
+                    String value = new String(bytes, offset + 3, length, StandardCharsets.ISO_8859_1);
+                    if (value.equals(name) || value.contains(descriptor)) {
+                        if (found == offsets.length) {
+                            offsets = Arrays.copyOf(offsets, found * 2);
+                        }
+                        offsets[found++] = offset;
+                    }
+                    offset += 3 + length;
+                }
+                case 7, 8, 16, 19, 20 -> offset += 3;
+                case 15 -> offset += 4;
+                case 3, 4, 9, 10, 11, 12, 17, 18 -> offset += 5;
+                case 5, 6 -> {
+                    offset += 9;
+                    // Long and double entries take two slots
+                    index++;
+                }
+                default -> {
+                    return null;
+                }
+            }
+        }
+        return Arrays.copyOf(offsets, found);
+    }
+
+    /**
+     * Rename a class by rewriting only the constant pool entries that hold its name, leaving every other byte as is.
+     * Because constant pool indices do not change, code, frames and attributes stay valid without being rewritten.
+     *
+     * @param bytes The class bytecode
+     * @param nameEntries The offsets of the entries to rewrite, from {@link #findNameEntries(byte[], String)}
+     * @param from The internal name to replace
+     * @param to The new internal name, which must be ASCII
+     * @return The renamed bytecode
+     */
+    static byte[] renameInConstantPool(byte[] bytes, int[] nameEntries, String from, String to) {
+        String descriptorFrom = "L" + from + ";";
+        String descriptorTo = "L" + to + ";";
+        byte[][] replacements = new byte[nameEntries.length][];
+        int size = bytes.length;
+        for (int i = 0; i < nameEntries.length; i++) {
+            int offset = nameEntries[i];
+            int length = ((bytes[offset + 1] & 0xFF) << 8) | (bytes[offset + 2] & 0xFF);
+            String value = new String(bytes, offset + 3, length, StandardCharsets.ISO_8859_1);
+            replacements[i] = (value.equals(from) ? to : value.replace(descriptorFrom, descriptorTo))
+                    .getBytes(StandardCharsets.ISO_8859_1);
+            if (replacements[i].length > 0xFFFF) {
+                return null;
+            }
+            size += replacements[i].length - length;
+        }
+
+        byte[] result = new byte[size];
+        int source = 0;
+        int target = 0;
+        for (int i = 0; i < nameEntries.length; i++) {
+            int offset = nameEntries[i];
+            int length = ((bytes[offset + 1] & 0xFF) << 8) | (bytes[offset + 2] & 0xFF);
+            System.arraycopy(bytes, source, result, target, offset - source);
+            target += offset - source;
+            result[target++] = 1;
+            result[target++] = (byte) (replacements[i].length >>> 8);
+            result[target++] = (byte) replacements[i].length;
+            System.arraycopy(replacements[i], 0, result, target, replacements[i].length);
+            target += replacements[i].length;
+            source = offset + 3 + length;
+        }
+        System.arraycopy(bytes, source, result, target, bytes.length - source);
+        return result;
+    }
+
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == 0 || value.charAt(i) > 0x7F) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,357 @@
+package net.ShockFox05.ClientBlockerSF.test;
+
+import net.ShockFox05.ClientBlockerSF.compat.CompatRegistry;
+import net.ShockFox05.ClientBlockerSF.stub.KeyMappingStub;
+import net.ShockFox05.ClientBlockerSF.stub.ScreenStub;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassLoader;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassRegistry;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassTransformer;
+import net.ShockFox05.ClientBlockerSF.stub.StubTemplateStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.objectweb.asm.ClassReader;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests for the tables that parallel mod construction and class loading share: the stub class mapping,
+ * the stub registry and loader, the transformer's template cache and the compatibility registry.
+ * Every scenario releases all threads at once against the same keys and checks that each completed write is visible
+ * to every later read and that each stub is defined exactly once. The throughput on one thread and on all threads
+ * is published as a report entry of the test.
+ * Run them with {@code ./gradlew stressTest [-PstressThreads=8] [-PstressIterations=20000]}; they are not part of
+ * {@code check} or {@code build}.
+ */
+public class ConcurrencyStressTest {
+    private static final String STRESS_PACKAGE = "net.minecraft.client.stress.";
+    private static final int SHARED_KEYS = 64;
+    private static final ThreadLocal<Set<String>> APPLIED = new ThreadLocal<>();
+    private static final int THREADS = Math.max(2, Integer.getInteger("clientblockersf.stressThreads",
+            Runtime.getRuntime().availableProcessors()));
+    private static final int ITERATIONS = Integer.getInteger("clientblockersf.stressIterations", 20_000);
+    // Stubs and mappings are global, so every run uses names of its own
+    private static final AtomicInteger RUNS = new AtomicInteger();
+
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+
+    @Test
+    void stubsAreDefinedOnce(TestReporter reporter) throws Exception {
+        measure(reporter, "stub define", this::stubDefine);
+    }
+
+    @Test
+    void completedMappingsAreVisible(TestReporter reporter) throws Exception {
+        // There are no readers on one thread, so the throughput on all threads includes the reads
+        measure(reporter, "mapping publish", this::mappingPublish);
+    }
+
+    @Test
+    void stubsMatchTheirTemplate(TestReporter reporter) throws Exception {
+        measure(reporter, "template cache", this::templateCache);
+    }
+
+    @Test
+    void compatRegistrationsAreNotLost(TestReporter reporter) throws Exception {
+        measure(reporter, "compat tables", this::compatTables);
+    }
+
+    /**
+     * Run a scenario on one thread and on all threads, publish its throughput and fail on any failed check.
+     */
+    private void measure(TestReporter reporter, String scenario, Scenario run) throws Exception {
+        // Warm up once so neither measurement pays for class loading and compilation
+        run.run(nextPrefix(scenario), THREADS);
+        double single = run.run(nextPrefix(scenario), 1);
+        double contended = run.run(nextPrefix(scenario), THREADS);
+        reporter.publishEntry(scenario, String.format(Locale.ROOT, "%.0f op/s on 1 thread, %.0f op/s on %d threads (%.2fx)",
+                single, contended, THREADS, contended / single));
+
+        assertTrue(failures.isEmpty(), () -> failures.entrySet().stream()
+                .map(failure -> failure.getValue().sum() + " x " + failure.getKey())
+                .collect(Collectors.joining(", ", scenario + " failed: ", "")));
+    }
+
+    private static String nextPrefix(String scenario) {
+        return scenario.replace(' ', '_') + ".run" + RUNS.incrementAndGet() + ".";
+    }
+
+    /**
+     * Every thread loads the same stubs from one loader in a different order.
+     * Each stub must be defined exactly once and every thread must get that same class.
+     */
+    private double stubDefine(String prefix, int threadCount) throws Exception {
+        StubClassLoader loader = new StubClassLoader(ConcurrencyStressTest.class.getClassLoader(), RUNS.get());
+        int keys = Math.max(SHARED_KEYS, ITERATIONS / 16);
+        String[] names = new String[keys];
+        for (int i = 0; i < keys; i++) {
+            names[i] = STRESS_PACKAGE + prefix + "Stub" + i;
+        }
+        Map<String, Class<?>> defined = new ConcurrentHashMap<>();
+        int loadedBefore = StubClassRegistry.getGenerationStubCount(loader.getGeneration());
+
+        long nanos = runThreads(threadCount, thread -> {
+            int offset = thread * keys / threadCount;
+            for (int i = 0; i < keys; i++) {
+                String name = names[(offset + i) % keys];
+                Class<?> loaded = loader.loadClass(name);
+                Class<?> first = defined.putIfAbsent(name, loaded);
+                check(first == null || first == loaded, "stub was defined more than once");
+                check(loaded.getName().equals(name), "stub has the wrong name");
+            }
+        });
+
+        for (String name : names) {
+            check(name.equals(StubClassRegistry.getLoadedStubName(name)), "defined stub is missing from the registry");
+            check(loader.defineStub(name) == defined.get(name), "stub was redefined after loading");
+        }
+        check(StubClassRegistry.getGenerationStubCount(loader.getGeneration()) - loadedBefore <= keys,
+                "registry counted more stubs than were defined");
+        return opsPerSecond((long) keys * threadCount, nanos);
+    }
+
+    /**
+     * Half of the threads register mappings one at a time or in small batches, the other half read them.
+     * A mapping whose registration has returned must be visible to every later lookup, and seeing a writer's
+     * newest mapping implies seeing all of its earlier ones.
+     */
+    private double mappingPublish(String prefix, int threadCount) throws Exception {
+        int writers = Math.max(1, threadCount / 2);
+        int perWriter = Math.max(8, ITERATIONS / 8 / writers);
+        AtomicIntegerArray progress = new AtomicIntegerArray(writers);
+        AtomicInteger finishedWriters = new AtomicInteger();
+        LongAdder reads = new LongAdder();
+
+        long nanos = runThreads(threadCount, thread -> {
+            if (thread < writers) {
+                for (int i = 0; i < perWriter; ) {
+                    if (i % 16 == 0 && i + 8 <= perWriter) {
+                        Map<String, Class<?>> batch = new HashMap<>();
+                        for (int j = 0; j < 8; j++) {
+                            batch.put(mappingName(prefix, thread, i + j), ScreenStub.class);
+                        }
+                        StubClassMapping.registerAll(batch);
+                        i += 8;
+                    } else {
+                        StubClassMapping.register(mappingName(prefix, thread, i), ScreenStub.class);
+                        i++;
+                    }
+                    progress.set(thread, i);
+                    check(StubClassMapping.hasStubClass(mappingName(prefix, thread, i - 1)), "own registration was not visible");
+                }
+                finishedWriters.incrementAndGet();
+            } else {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (finishedWriters.get() < writers || reads.sum() < perWriter) {
+                    int writer = random.nextInt(writers);
+                    int published = progress.get(writer);
+                    if (published == 0) {
+                        Thread.onSpinWait();
+                        continue;
+                    }
+                    String newest = mappingName(prefix, writer, published - 1);
+                    check(StubClassMapping.getStubClass(newest) == ScreenStub.class, "completed registration was not visible");
+                    check(StubClassMapping.isClientClass(newest), "registered class is not a client class");
+                    check(StubClassMapping.hasStubClass(mappingName(prefix, writer, random.nextInt(published))),
+                            "earlier registration was lost");
+                    reads.increment();
+                }
+            }
+        });
+
+        Set<String> mapped = StubClassMapping.getAllMappedClasses();
+        for (int writer = 0; writer < writers; writer++) {
+            for (int i = 0; i < perWriter; i++) {
+                check(mapped.contains(mappingName(prefix, writer, i)), "registration missing after all writers finished");
+            }
+        }
+        return opsPerSecond((long) writers * perWriter + reads.sum(), nanos);
+    }
+
+    private static String mappingName(String prefix, int writer, int index) {
+        return "com.example.stress." + prefix + "Writer" + writer + "$Class" + index;
+    }
+
+    /**
+     * Threads warm and read the same stubs, mapped to different templates, while others summarise the cache.
+     * Whichever thread wins, every stub must be produced from the template it is mapped to.
+     */
+    private double templateCache(String prefix, int threadCount) throws Exception {
+        String[] names = new String[SHARED_KEYS];
+        byte[][] expected = new byte[SHARED_KEYS][];
+        Map<String, Class<?>> mappings = new HashMap<>();
+        for (int i = 0; i < SHARED_KEYS; i++) {
+            names[i] = STRESS_PACKAGE + prefix + "Cached" + i;
+            Class<?> template = i % 2 == 0 ? ScreenStub.class : KeyMappingStub.class;
+            mappings.put(names[i], template);
+            expected[i] = StubTemplateStore.getTemplate(template).materialize(names[i]);
+        }
+        StubClassMapping.registerAll(mappings);
+        String[] internalNames = Arrays.stream(names).map(name -> name.replace('.', '/')).toArray(String[]::new);
+        int perThread = Math.max(SHARED_KEYS, ITERATIONS / threadCount);
+
+        long nanos = runThreads(threadCount, thread -> {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            for (int i = 0; i < perThread; i++) {
+                int key = random.nextInt(SHARED_KEYS);
+                if (i % 3 == 0) {
+                    check(StubClassTransformer.warmStub(names[key]), "client class could not be warmed");
+                } else {
+                    byte[] bytes = StubClassTransformer.getStubBytecode(names[key]);
+                    check(bytes != null && Arrays.equals(bytes, expected[key]), "stub was produced from the wrong template");
+                    check(bytes == null || new ClassReader(bytes).getClassName().equals(internalNames[key]),
+                            "stub has the wrong name");
+                }
+                if (i % 1024 == 0) {
+                    check(StubClassTransformer.getMemorySummary() != null, "memory summary failed");
+                }
+            }
+        });
+        return opsPerSecond((long) perThread * threadCount, nanos);
+    }
+
+    /**
+     * Threads register patches and fixes for shared classes and mods while others apply them.
+     * No registration may be lost, and a registration must be visible to its own thread as soon as it returns.
+     */
+    private double compatTables(String prefix, int threadCount) throws Exception {
+        String[] classNames = new String[SHARED_KEYS];
+        String[] modIds = new String[SHARED_KEYS];
+        for (int i = 0; i < SHARED_KEYS; i++) {
+            classNames[i] = "com.example.stress." + prefix + "Patched" + i;
+            modIds[i] = "stress_" + prefix.replace('.', '_') + i;
+        }
+        Map<String, Set<String>> expected = new ConcurrentHashMap<>();
+        int perThread = Math.max(SHARED_KEYS, ITERATIONS / 4 / threadCount);
+        byte[] bytes = {0};
+
+        long nanos = runThreads(threadCount, thread -> {
+            for (int i = 0; i < perThread; i++) {
+                int key = (thread + i) % SHARED_KEYS;
+                String id = thread + ":" + i;
+                if (i % 2 == 0) {
+                    CompatRegistry.registerPatch(classNames[key], "stress patch " + id, (className, classBytes) -> {
+                        record(id);
+                        return classBytes;
+                    });
+                    expected.computeIfAbsent(classNames[key], k -> ConcurrentHashMap.newKeySet()).add(id);
+                    check(CompatRegistry.hasPatches(classNames[key]), "own patch was not visible");
+                } else {
+                    CompatRegistry.registerFix(modIds[key], "stress fix " + id, () -> record(id));
+                    expected.computeIfAbsent(modIds[key], k -> ConcurrentHashMap.newKeySet()).add(id);
+                }
+                // Apply while other threads are still appending to the same lists
+                int other = (key + 1) % SHARED_KEYS;
+                check(CompatRegistry.applyPatches(classNames[other], bytes) == bytes, "stress patch changed the bytes");
+                CompatRegistry.applyFixes(modIds[other]);
+            }
+        });
+
+        for (int i = 0; i < SHARED_KEYS; i++) {
+            String className = classNames[i];
+            String modId = modIds[i];
+            check(expected.getOrDefault(className, Set.of()).equals(collect(() -> CompatRegistry.applyPatches(className, bytes))),
+                    "patch registration was lost");
+            check(expected.getOrDefault(modId, Set.of()).equals(collect(() -> CompatRegistry.applyFixes(modId))),
+                    "fix registration was lost");
+        }
+        return opsPerSecond((long) perThread * threadCount * 3, nanos);
+    }
+
+    private static void record(String id) {
+        Set<String> applied = APPLIED.get();
+        if (applied != null) {
+            applied.add(id);
+        }
+    }
+
+    /**
+     * Collect the ids of the patches or fixes the action applies on this thread.
+     */
+    private static Set<String> collect(Runnable action) {
+        Set<String> applied = new HashSet<>();
+        APPLIED.set(applied);
+        try {
+            action.run();
+        } finally {
+            APPLIED.remove();
+        }
+        return applied;
+    }
+
+    /**
+     * Start the given number of threads together and wait for all of them.
+     *
+     * @return The elapsed nanoseconds from the start signal until the last thread finished
+     */
+    private long runThreads(int threadCount, StressTask task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch ready = new CountDownLatch(threadCount);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>(threadCount);
+            for (int t = 0; t < threadCount; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    ready.countDown();
+                    start.await();
+                    task.run(thread);
+                    return null;
+                }));
+            }
+            ready.await();
+            long begin = System.nanoTime();
+            start.countDown();
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (Exception e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    check(false, "thread threw " + cause.getClass().getSimpleName());
+                }
+            }
+            return System.nanoTime() - begin;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private void check(boolean condition, String failure) {
+        if (!condition) {
+            failures.computeIfAbsent(failure, k -> new LongAdder()).increment();
+        }
+    }
+
+    private static double opsPerSecond(long operations, long nanos) {
+        return operations / Math.max(nanos / 1_000_000_000.0, 1e-9);
+    }
+
+    @FunctionalInterface
+    private interface Scenario {
+        double run(String prefix, int threadCount) throws Exception;
+    }
+
+    @FunctionalInterface
+    private interface StressTask {
+        void run(int thread) throws Exception;
+    }
+}
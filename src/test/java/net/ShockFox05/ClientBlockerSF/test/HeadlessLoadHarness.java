@@ -0,0 +1,315 @@
+package net.ShockFox05.ClientBlockerSF.test;
+
+import net.ShockFox05.ClientBlockerSF.compat.CompatRegistry;
+import net.ShockFox05.ClientBlockerSF.compat.ExceptionHandler;
+import net.ShockFox05.ClientBlockerSF.metrics.LatencyHistogram;
+import net.ShockFox05.ClientBlockerSF.metrics.OperationStats;
+import net.ShockFox05.ClientBlockerSF.scan.ConstantPoolReader;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassLoader;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import net.ShockFox05.ClientBlockerSF.stub.StubClassTransformer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+/**
+ * Headless harness that replays a generated class-loading workload against the stub loader,
+ * the stub transformer and the compatibility registry, without a Minecraft server.
+ * Run it with {@code ./gradlew headlessLoadTest}; it exits with a non-zero status if any correctness check fails.
+ * When given a directory of mod jars (see {@link SyntheticModJarGenerator}), the workload is derived from those jars instead.
+ */
+public class HeadlessLoadHarness {
+    private static final String PATCHED_PREFIX = "com.example.patched.";
+    private static final byte[] PATCH_MARKER = {(byte) 0xCA, (byte) 0xFE};
+
+    private final int requests;
+    private final int threads;
+    private final long seed;
+    private final Path jarDirectory;
+    private final Map<String, byte[]> jarClasses = new ConcurrentHashMap<>();
+
+    private final Map<RequestKind, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<RequestKind, LongAdder> passed = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> failures = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> definedStubs = new ConcurrentHashMap<>();
+
+    public HeadlessLoadHarness(int requests, int threads, long seed, Path jarDirectory) {
+        this.requests = requests;
+        this.threads = threads;
+        this.seed = seed;
+        this.jarDirectory = jarDirectory;
+        for (RequestKind kind : RequestKind.values()) {
+            latencies.put(kind, new LatencyHistogram());
+            passed.put(kind, new LongAdder());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 50_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42L;
+        Path jarDirectory = args.length > 3 ? Paths.get(args[3]) : null;
+
+        boolean ok = new HeadlessLoadHarness(requests, threads, seed, jarDirectory).run();
+        System.exit(ok ? 0 : 1);
+    }
+
+    /**
+     * Generate and replay the workload, then print the report.
+     *
+     * @return true if every correctness check passed
+     */
+    public boolean run() throws Exception {
+        List<Request> workload = jarDirectory != null ? readJarWorkload() : generateWorkload();
+        StubClassLoader loader = new StubClassLoader(HeadlessLoadHarness.class.getClassLoader());
+        JarClassLoader jarLoader = new JarClassLoader(loader, jarClasses);
+        byte[] sampleClass = readSampleClass();
+
+        // Patch every synthetic class in the patched package with a recognisable marker
+        for (int i = 0; i < 64; i++) {
+            CompatRegistry.registerPatch(PATCHED_PREFIX + "Patched" + i, "headless harness marker patch",
+                    (className, bytes) -> PATCH_MARKER);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>(threads);
+            int chunk = (workload.size() + threads - 1) / threads;
+            for (int t = 0; t < threads; t++) {
+                List<Request> slice = workload.subList(Math.min(workload.size(), t * chunk),
+                        Math.min(workload.size(), (t + 1) * chunk));
+                futures.add(executor.submit(() -> slice.forEach(request -> replay(request, loader, jarLoader, sampleClass))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        return report(workload.size(), elapsedNanos);
+    }
+
+    /**
+     * Build a shuffled workload mixing mapped client classes, synthetic client classes,
+     * non-client misses, JDK classes and class transforms.
+     */
+    private List<Request> generateWorkload() {
+        Random random = new Random(seed);
+        List<String> mapped = new ArrayList<>(StubClassMapping.getAllMappedClasses());
+        Collections.sort(mapped);
+
+        List<Request> workload = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            int roll = random.nextInt(100);
+            if (roll < 30) {
+                workload.add(new Request(RequestKind.MAPPED_CLIENT, mapped.get(random.nextInt(mapped.size()))));
+            } else if (roll < 45) {
+                workload.add(new Request(RequestKind.SYNTHETIC_CLIENT,
+                        "net.minecraft.client.synthetic.Generated" + random.nextInt(2_000)));
+            } else if (roll < 65) {
+                workload.add(new Request(RequestKind.MISS, "com.example.mod" + random.nextInt(500) + ".Missing" + random.nextInt(50)));
+            } else if (roll < 75) {
+                workload.add(new Request(RequestKind.JDK, random.nextBoolean() ? "java.util.ArrayList" : "java.lang.String"));
+            } else if (roll < 90) {
+                workload.add(new Request(RequestKind.TRANSFORM_PLAIN, "com.example.mod" + random.nextInt(500) + ".Plain" + random.nextInt(50)));
+            } else {
+                workload.add(new Request(RequestKind.TRANSFORM_PATCHED, PATCHED_PREFIX + "Patched" + random.nextInt(64)));
+            }
+        }
+        return workload;
+    }
+
+    /**
+     * Build a shuffled workload from a directory of mod jars: every class is transformed,
+     * every referenced client class is loaded and every class with a static initializer is initialized.
+     */
+    private List<Request> readJarWorkload() throws IOException {
+        List<Request> workload = new ArrayList<>();
+        List<Path> jars;
+        try (Stream<Path> files = Files.list(jarDirectory)) {
+            jars = files.filter(path -> path.toString().endsWith(".jar")).sorted().toList();
+        }
+
+        for (Path jar : jars) {
+            try (JarFile jarFile = new JarFile(jar.toFile())) {
+                for (JarEntry entry : Collections.list(jarFile.entries())) {
+                    if (!entry.getName().endsWith(".class")) {
+                        continue;
+                    }
+                    byte[] bytes;
+                    try (InputStream in = jarFile.getInputStream(entry)) {
+                        bytes = in.readAllBytes();
+                    }
+                    String className = entry.getName().substring(0, entry.getName().length() - ".class".length()).replace('/', '.');
+                    jarClasses.put(className, bytes);
+
+                    workload.add(new Request(RequestKind.TRANSFORM_PLAIN, className, bytes));
+                    workload.add(new Request(RequestKind.INITIALIZE, className, bytes));
+                    for (String type : ConstantPoolReader.readReferencedTypes(bytes)) {
+                        if (StubClassMapping.hasStubClass(type)) {
+                            workload.add(new Request(RequestKind.MAPPED_CLIENT, type, null));
+                        } else if (StubClassMapping.isClientClass(type)) {
+                            workload.add(new Request(RequestKind.SYNTHETIC_CLIENT, type, null));
+                        }
+                    }
+                }
+            }
+        }
+
+        Collections.shuffle(workload, new Random(seed));
+        System.out.printf(Locale.ROOT, "Read %d classes from %d jars in %s%n", jarClasses.size(), jars.size(), jarDirectory);
+        return workload;
+    }
+
+    /**
+     * Replay one request and check its result.
+     */
+    private void replay(Request request, StubClassLoader loader, JarClassLoader jarLoader, byte[] sampleClass) {
+        long start = System.nanoTime();
+        String failure;
+        try {
+            failure = switch (request.kind) {
+                case MAPPED_CLIENT, SYNTHETIC_CLIENT -> checkStub(request.className, loader.loadClass(request.className));
+                case MISS -> checkMiss(request.className, loader);
+                case JDK -> loader.loadClass(request.className) == Class.forName(request.className) ? null : "JDK class was shadowed";
+                case TRANSFORM_PLAIN -> StubClassTransformer.transform(request.className, request.className,
+                        request.bytes != null ? request.bytes : sampleClass) == null ? null : "unpatched non-client class was transformed";
+                case TRANSFORM_PATCHED -> StubClassTransformer.transform(request.className, request.className, sampleClass) == PATCH_MARKER
+                        ? null : "patch was not applied";
+                case INITIALIZE -> checkInitialize(request.className, jarLoader);
+            };
+        } catch (Throwable t) {
+            failure = request.kind + " threw " + t.getClass().getSimpleName();
+        }
+        latencies.get(request.kind).record(System.nanoTime() - start);
+
+        if (failure == null) {
+            passed.get(request.kind).increment();
+        } else {
+            failures.computeIfAbsent(failure, k -> new LongAdder()).increment();
+        }
+    }
+
+    private String checkStub(String className, Class<?> loaded) {
+        if (!loaded.getName().equals(className)) {
+            return "stub has the wrong name";
+        }
+        Class<?> first = definedStubs.putIfAbsent(className, loaded);
+        return first == null || first == loaded ? null : "stub was defined more than once";
+    }
+
+    private static String checkInitialize(String className, JarClassLoader jarLoader) {
+        try {
+            Class.forName(className, true, jarLoader);
+            return null;
+        } catch (Throwable t) {
+            // Client code in static initializers is expected to fail; it must be handled by the exception handler
+            return ExceptionHandler.handleException(t, "initializing " + className, null) ? null : "initializer failure was not suppressed";
+        }
+    }
+
+    private static String checkMiss(String className, StubClassLoader loader) {
+        try {
+            loader.loadClass(className);
+            return "non-client class was stubbed";
+        } catch (ClassNotFoundException e) {
+            return null;
+        }
+    }
+
+    private boolean report(int total, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf(Locale.ROOT, "Replayed %d requests on %d threads in %.2f s (%.0f requests/s)%n",
+                total, threads, seconds, total / seconds);
+        System.out.printf(Locale.ROOT, "%-18s %8s %10s %10s %10s%n", "request", "passed", "p50", "p99", "max");
+        for (RequestKind kind : RequestKind.values()) {
+            LatencyHistogram histogram = latencies.get(kind);
+            System.out.printf(Locale.ROOT, "%-18s %8d %10s %10s %10s%n", kind, passed.get(kind).sum(),
+                    OperationStats.formatNanos(histogram.getPercentileNanos(50)),
+                    OperationStats.formatNanos(histogram.getPercentileNanos(99)),
+                    OperationStats.formatNanos(histogram.getMaxNanos()));
+        }
+
+        System.out.println("Stub and compat operations:");
+        OperationStats.getSummary().forEach(line -> System.out.println("  " + line));
+
+        if (failures.isEmpty()) {
+            System.out.println("All correctness checks passed");
+            return true;
+        }
+        System.out.println("Correctness failures:");
+        failures.forEach((failure, count) -> System.out.println("  " + count.sum() + " x " + failure));
+        return false;
+    }
+
+    private static byte[] readSampleClass() throws IOException {
+        String resource = HeadlessLoadHarness.class.getName().replace('.', '/') + ".class";
+        try (InputStream in = HeadlessLoadHarness.class.getClassLoader().getResourceAsStream(resource)) {
+            if (in == null) {
+                throw new IOException("Missing sample class " + resource);
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private enum RequestKind {
+        MAPPED_CLIENT,
+        SYNTHETIC_CLIENT,
+        MISS,
+        JDK,
+        TRANSFORM_PLAIN,
+        TRANSFORM_PATCHED,
+        INITIALIZE
+    }
+
+    private record Request(RequestKind kind, String className, byte[] bytes) {
+        Request(RequestKind kind, String className) {
+            this(kind, className, null);
+        }
+    }
+
+    /**
+     * Defines the classes read from the mod jars, resolving client classes through the stub loader.
+     */
+    private static class JarClassLoader extends ClassLoader {
+        static {
+            ClassLoader.registerAsParallelCapable();
+        }
+
+        private final Map<String, byte[]> classes;
+
+        JarClassLoader(ClassLoader parent, Map<String, byte[]> classes) {
+            super(parent);
+            this.classes = classes;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            byte[] bytes = classes.get(name);
+            if (bytes == null) {
+                throw new ClassNotFoundException(name);
+            }
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package net.ShockFox05.ClientBlockerSF.test;
+
+import net.ShockFox05.ClientBlockerSF.stub.BufferBuilderStub;
+import net.ShockFox05.ClientBlockerSF.stub.KeyMappingStub;
+import net.ShockFox05.ClientBlockerSF.stub.ModelRendererStub;
+import net.ShockFox05.ClientBlockerSF.stub.RenderSystemStub;
+import net.ShockFox05.ClientBlockerSF.stub.ResourceLocationStub;
+import net.ShockFox05.ClientBlockerSF.stub.ScreenStub;
+import net.ShockFox05.ClientBlockerSF.stub.StubTemplateStore;
+import org.objectweb.asm.ClassReader;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.commons.ClassRemapper;
+import org.objectweb.asm.commons.SimpleRemapper;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the cost of producing, defining and linking stubs, comparing compacted templates renamed in the
+ * constant pool against renaming the compiled templates with ASM.
+ * Run it with {@code ./gradlew stubDefineBenchmark}.
+ */
+public class StubDefineBenchmark {
+    private static final List<Class<?>> TEMPLATES = List.of(ScreenStub.class, KeyMappingStub.class, BufferBuilderStub.class,
+            ModelRendererStub.class, RenderSystemStub.class, ResourceLocationStub.class);
+    private static final String PACKAGE = "net/minecraft/client/benchmark/";
+
+    public static void main(String[] args) throws Exception {
+        int stubs = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        byte[][] compiled = new byte[TEMPLATES.size()][];
+        StubTemplateStore.Template[] compacted = new StubTemplateStore.Template[TEMPLATES.size()];
+        long compiledSize = 0;
+        long compactedSize = 0;
+        for (int i = 0; i < TEMPLATES.size(); i++) {
+            compiled[i] = readCompiled(TEMPLATES.get(i));
+            compacted[i] = StubTemplateStore.getTemplate(TEMPLATES.get(i));
+            compiledSize += compiled[i].length;
+            compactedSize += compacted[i].getSize();
+        }
+        System.out.printf("Templates: %d bytes compiled, %d bytes compacted%n", compiledSize, compactedSize);
+
+        for (int round = 1; round <= rounds; round++) {
+            Result baseline = run(stubs, round, (index, name) -> {
+                Class<?> template = TEMPLATES.get(index);
+                ClassWriter writer = new ClassWriter(0);
+                new ClassReader(compiled[index]).accept(new ClassRemapper(writer,
+                        new SimpleRemapper(template.getName().replace('.', '/'), name)), 0);
+                return writer.toByteArray();
+            });
+            Result current = run(stubs, round, (index, name) -> compacted[index].materialize(name.replace('/', '.')));
+            System.out.printf(Locale.ROOT, "Round %d: template copy %s | compacted %s%n", round, baseline, current);
+        }
+    }
+
+    /**
+     * Produce, define and link the given number of stubs in a fresh class loader.
+     */
+    private static Result run(int stubs, int round, StubFactory factory) throws ClassNotFoundException {
+        BenchmarkClassLoader loader = new BenchmarkClassLoader();
+        long generateNanos = 0;
+        long defineNanos = 0;
+        long bytes = 0;
+        for (int i = 0; i < stubs; i++) {
+            String name = PACKAGE + "Round" + round + "Stub" + i;
+
+            long start = System.nanoTime();
+            byte[] bytecode = factory.create(i % TEMPLATES.size(), name);
+            long generated = System.nanoTime();
+            Class<?> stub = loader.define(bytecode);
+            // Initializing forces verification and linking of the freshly defined class
+            Class.forName(stub.getName(), true, loader);
+            long linked = System.nanoTime();
+
+            generateNanos += generated - start;
+            defineNanos += linked - generated;
+            bytes += bytecode.length;
+        }
+        return new Result(stubs, generateNanos, defineNanos, bytes);
+    }
+
+    private static byte[] readCompiled(Class<?> template) throws IOException {
+        try (InputStream in = template.getClassLoader().getResourceAsStream(template.getName().replace('.', '/') + ".class")) {
+            if (in == null) {
+                throw new IOException("Missing class file for " + template.getName());
+            }
+            return in.readAllBytes();
+        }
+    }
+
+    private interface StubFactory {
+        byte[] create(int templateIndex, String internalName);
+    }
+
+    private record Result(int stubs, long generateNanos, long defineNanos, long bytes) {
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "generate %.1fus, define+link %.1fus, %d bytes per stub",
+                    generateNanos / 1_000.0 / stubs, defineNanos / 1_000.0 / stubs, bytes / stubs);
+        }
+    }
+
+    private static class BenchmarkClassLoader extends ClassLoader {
+        BenchmarkClassLoader() {
+            super(StubDefineBenchmark.class.getClassLoader());
+        }
+
+        Class<?> define(byte[] bytecode) {
+            return defineClass(null, bytecode, 0, bytecode.length);
+        }
+    }
+}
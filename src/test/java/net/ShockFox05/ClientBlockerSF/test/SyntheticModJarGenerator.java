@@ -0,0 +1,227 @@
+package net.ShockFox05.ClientBlockerSF.test;
+
+import net.ShockFox05.ClientBlockerSF.stub.StubClassMapping;
+import org.objectweb.asm.AnnotationVisitor;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.FieldVisitor;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+/**
+ * Generates synthetic mod jars that reference client classes, for load-testing the stub system at modpack scale.
+ * Output is deterministic for a given seed.
+ * Run it with {@code ./gradlew generateSyntheticMods}, passing settings as {@code key=value} arguments.
+ */
+public class SyntheticModJarGenerator {
+    private static final String ONLY_IN = "Lnet/neoforged/api/distmarker/OnlyIn;";
+    private static final String DIST = "Lnet/neoforged/api/distmarker/Dist;";
+    private static final String MOD = "Lnet/neoforged/fml/common/Mod;";
+    private static final int SYNTHETIC_CLIENT_CLASSES = 2_000;
+
+    public static void main(String[] args) throws IOException {
+        Settings settings = new Settings();
+        Path output = Paths.get("build", "synthetic-mods");
+        for (String arg : args) {
+            String[] parts = arg.split("=", 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Expected key=value but got " + arg);
+            }
+            switch (parts[0]) {
+                case "out" -> output = Paths.get(parts[1]);
+                case "mods" -> settings.mods = Integer.parseInt(parts[1]);
+                case "classes" -> settings.classesPerMod = Integer.parseInt(parts[1]);
+                case "clientRefs" -> settings.clientRefsPerClass = Integer.parseInt(parts[1]);
+                case "onlyIn" -> settings.onlyInMembersPerClass = Integer.parseInt(parts[1]);
+                case "clientInit" -> settings.clientInitializerRatio = Double.parseDouble(parts[1]);
+                case "seed" -> settings.seed = Long.parseLong(parts[1]);
+                default -> throw new IllegalArgumentException("Unknown setting " + parts[0]);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Path> jars = generate(output, settings);
+        System.out.printf("Generated %d synthetic mod jars in %s (%d ms)%n",
+                jars.size(), output.toAbsolutePath(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Generate the synthetic mod jars.
+     *
+     * @param output The directory to write the jars to
+     * @param settings The shape of the generated mods
+     * @return The generated jar files
+     */
+    public static List<Path> generate(Path output, Settings settings) throws IOException {
+        Files.createDirectories(output);
+        Random random = new Random(settings.seed);
+        List<String> clientClasses = getClientClassPool();
+
+        List<Path> jars = new ArrayList<>(settings.mods);
+        for (int mod = 0; mod < settings.mods; mod++) {
+            Path jar = output.resolve("synthetic_mod" + mod + ".jar");
+            writeModJar(jar, mod, settings, clientClasses, random);
+            jars.add(jar);
+        }
+        return jars;
+    }
+
+    /**
+     * Mapped client classes plus synthetic client package classes that have no explicit mapping.
+     */
+    private static List<String> getClientClassPool() {
+        List<String> pool = new ArrayList<>(StubClassMapping.getAllMappedClasses());
+        Collections.sort(pool);
+        for (int i = 0; i < SYNTHETIC_CLIENT_CLASSES; i++) {
+            pool.add("net.minecraft.client.synthetic.Generated" + i);
+        }
+        return pool;
+    }
+
+    private static void writeModJar(Path jar, int mod, Settings settings, List<String> clientClasses, Random random) throws IOException {
+        String modId = "synthetic_mod" + mod;
+        String packageName = "com/example/synthetic/mod" + mod + "/";
+
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+        manifest.getMainAttributes().putValue("Automatic-Module-Name", modId);
+
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar), manifest)) {
+            writeEntry(out, "META-INF/neoforge.mods.toml", modsToml(modId).getBytes(StandardCharsets.UTF_8));
+            writeEntry(out, packageName + "SyntheticMod.class", modClass(packageName + "SyntheticMod", modId));
+            for (int i = 0; i < settings.classesPerMod; i++) {
+                boolean clientInit = random.nextDouble() < settings.clientInitializerRatio;
+                byte[] bytes = contentClass(packageName + "Content" + i, settings, clientClasses, clientInit, random);
+                writeEntry(out, packageName + "Content" + i + ".class", bytes);
+            }
+        }
+    }
+
+    private static void writeEntry(JarOutputStream out, String name, byte[] bytes) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.write(bytes);
+        out.closeEntry();
+    }
+
+    private static String modsToml(String modId) {
+        return "modLoader=\"javafml\"\n"
+                + "loaderVersion=\"[4,)\"\n"
+                + "license=\"MIT\"\n\n"
+                + "[[mods]]\n"
+                + "modId=\"" + modId + "\"\n"
+                + "version=\"1.0.0\"\n"
+                + "displayName=\"Synthetic Mod " + modId + "\"\n";
+    }
+
+    /**
+     * The mod entry point: an empty {@code @Mod} annotated class.
+     */
+    private static byte[] modClass(String internalName, String modId) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V21, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+        AnnotationVisitor annotation = writer.visitAnnotation(MOD, true);
+        annotation.visit("value", modId);
+        annotation.visitEnd();
+        writeConstructor(writer);
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * A content class with client references, {@code @OnlyIn(Dist.CLIENT)} members and optionally
+     * a static initializer that touches client code.
+     */
+    private static byte[] contentClass(String internalName, Settings settings, List<String> clientClasses,
+                                       boolean clientInit, Random random) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V21, Opcodes.ACC_PUBLIC | Opcodes.ACC_SUPER, internalName, null, "java/lang/Object", null);
+        writeConstructor(writer);
+
+        // Client references as class literals, so they end up in the constant pool without extra members
+        MethodVisitor touch = writer.visitMethod(Opcodes.ACC_PUBLIC | Opcodes.ACC_STATIC, "touchClientClasses", "()V", null, null);
+        touch.visitCode();
+        for (int i = 0; i < settings.clientRefsPerClass; i++) {
+            touch.visitLdcInsn(Type.getObjectType(pick(clientClasses, random)));
+            touch.visitInsn(Opcodes.POP);
+        }
+        touch.visitInsn(Opcodes.RETURN);
+        touch.visitMaxs(0, 0);
+        touch.visitEnd();
+
+        // Client-only members, alternating between fields and methods
+        for (int i = 0; i < settings.onlyInMembersPerClass; i++) {
+            String descriptor = "L" + pick(clientClasses, random) + ";";
+            if (i % 2 == 0) {
+                FieldVisitor field = writer.visitField(Opcodes.ACC_PRIVATE, "clientField" + i, descriptor, null, null);
+                visitOnlyInClient(field.visitAnnotation(ONLY_IN, false));
+                field.visitEnd();
+            } else {
+                MethodVisitor method = writer.visitMethod(Opcodes.ACC_PUBLIC, "clientMethod" + i, "(" + descriptor + ")V", null, null);
+                visitOnlyInClient(method.visitAnnotation(ONLY_IN, false));
+                method.visitCode();
+                method.visitInsn(Opcodes.RETURN);
+                method.visitMaxs(0, 0);
+                method.visitEnd();
+            }
+        }
+
+        if (clientInit) {
+            MethodVisitor clinit = writer.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+            clinit.visitCode();
+            clinit.visitMethodInsn(Opcodes.INVOKESTATIC, "net/minecraft/client/Minecraft", "getInstance",
+                    "()Lnet/minecraft/client/Minecraft;", false);
+            clinit.visitInsn(Opcodes.POP);
+            clinit.visitInsn(Opcodes.RETURN);
+            clinit.visitMaxs(0, 0);
+            clinit.visitEnd();
+        }
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    private static void writeConstructor(ClassWriter writer) {
+        MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+    }
+
+    private static void visitOnlyInClient(AnnotationVisitor annotation) {
+        annotation.visitEnum("value", DIST, "CLIENT");
+        annotation.visitEnd();
+    }
+
+    private static String pick(List<String> clientClasses, Random random) {
+        return clientClasses.get(random.nextInt(clientClasses.size())).replace('.', '/');
+    }
+
+    /**
+     * The shape of the generated mods.
+     */
+    public static class Settings {
+        public int mods = 500;
+        public int classesPerMod = 40;
+        public int clientRefsPerClass = 24;
+        public int onlyInMembersPerClass = 4;
+        public double clientInitializerRatio = 0.1;
+        public long seed = 1L;
+    }
+}